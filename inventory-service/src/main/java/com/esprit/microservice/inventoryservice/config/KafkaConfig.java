@@ -24,6 +24,10 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    // Listener threads per @KafkaListener; useful up to the topic's partition count
+    @Value("${kafka.listener.concurrency:3}")
+    private int listenerConcurrency;
+
     // Consumer Configuration
     @Bean
     public Map<String, Object> consumerConfigs() {
@@ -57,6 +61,8 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        // Product events are keyed by skuCode: each partition is owned by one thread, so per-SKU order is kept
+        factory.setConcurrency(listenerConcurrency);
         return factory;
     }
 
@@ -44,12 +44,12 @@ public class InventoryService {
         
         inventory = inventoryRepository.save(inventory);
         
-        // Send Kafka event (Asynchronous)
+        // Send Kafka event keyed by skuCode (Asynchronous, ordered per SKU)
         InventoryCreatedEvent event = InventoryCreatedEvent.builder()
                 .skuCode(inventory.getSkuCode())
                 .quantity(inventory.getQuantity())
                 .build();
-        kafkaTemplate.send("inventory-created-topic", event);
+        kafkaTemplate.send("inventory-created-topic", inventory.getSkuCode(), event);
         
         log.info("Inventory created for skuCode: {}", inventory.getSkuCode());
         
@@ -79,13 +79,13 @@ public class InventoryService {
         inventory.setQuantity(request.getQuantity());
         inventory = inventoryRepository.save(inventory);
         
-        // Send Kafka event (Asynchronous)
+        // Send Kafka event keyed by skuCode (Asynchronous, ordered per SKU)
         InventoryUpdatedEvent event = InventoryUpdatedEvent.builder()
                 .skuCode(inventory.getSkuCode())
                 .quantity(inventory.getQuantity())
                 .action("UPDATE")
                 .build();
-        kafkaTemplate.send("inventory-updated-topic", event);
+        kafkaTemplate.send("inventory-updated-topic", inventory.getSkuCode(), event);
         
         log.info("Inventory updated for skuCode: {}", skuCode);
         
@@ -111,13 +111,13 @@ public class InventoryService {
         inventory.setQuantity(inventory.getQuantity() + quantity);
         inventory = inventoryRepository.save(inventory);
         
-        // Send Kafka event (Asynchronous)
+        // Send Kafka event keyed by skuCode (Asynchronous, ordered per SKU)
         InventoryUpdatedEvent event = InventoryUpdatedEvent.builder()
                 .skuCode(inventory.getSkuCode())
                 .quantity(quantity)
                 .action("INCREASE")
                 .build();
-        kafkaTemplate.send("inventory-updated-topic", event);
+        kafkaTemplate.send("inventory-updated-topic", inventory.getSkuCode(), event);
         
         log.info("Increased stock for skuCode: {} by {}", skuCode, quantity);
         
@@ -137,13 +137,13 @@ public class InventoryService {
         inventory.setQuantity(inventory.getQuantity() - quantity);
         inventory = inventoryRepository.save(inventory);
         
-        // Send Kafka event (Asynchronous)
+        // Send Kafka event keyed by skuCode (Asynchronous, ordered per SKU)
         InventoryUpdatedEvent event = InventoryUpdatedEvent.builder()
                 .skuCode(inventory.getSkuCode())
                 .quantity(quantity)
                 .action("DECREASE")
                 .build();
-        kafkaTemplate.send("inventory-updated-topic", event);
+        kafkaTemplate.send("inventory-updated-topic", inventory.getSkuCode(), event);
         
         log.info("Decreased stock for skuCode: {} by {}", skuCode, quantity);
         
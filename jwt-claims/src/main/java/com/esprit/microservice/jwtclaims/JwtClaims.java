@@ -0,0 +1,38 @@
+package com.esprit.microservice.jwtclaims;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.List;
+
+/**
+ * The few claims the services read from a bearer token: sub, email and Keycloak realm roles.
+ * Resolved once per request by {@link JwtClaimsFilter} and stored under {@link #REQUEST_ATTRIBUTE}.
+ * Signatures are not verified here; services that need that keep relying on their OAuth2 resource server.
+ */
+public record JwtClaims(String subject, String email, List<String> roles, long expiresAt) {
+
+    public static final String REQUEST_ATTRIBUTE = JwtClaims.class.getName();
+
+    // Claims resolved for this request, or null when there was no readable bearer token
+    public static JwtClaims from(HttpServletRequest request) {
+        Object claims = request.getAttribute(REQUEST_ATTRIBUTE);
+        return claims instanceof JwtClaims jwtClaims ? jwtClaims : null;
+    }
+
+    // Same contract as the per-controller helpers this replaces: a RuntimeException when no usable token was sent
+    public static JwtClaims require(HttpServletRequest request) {
+        JwtClaims claims = from(request);
+        if (claims == null) {
+            throw new RuntimeException("Authorization header missing or invalid");
+        }
+        return claims;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    public boolean isExpired(long nowEpochSeconds) {
+        return expiresAt > 0 && expiresAt <= nowEpochSeconds;
+    }
+}
@@ -0,0 +1,28 @@
+package com.esprit.microservice.jwtclaims;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+// Picked up by every servlet service that has jwt-claims on its classpath
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JwtClaimsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtClaimsCache jwtClaimsCache(@Value("${jwt.claims.cache.maximum-size:10000}") int maximumSize) {
+        return new JwtClaimsCache(maximumSize);
+    }
+
+    @Bean
+    public FilterRegistrationBean<JwtClaimsFilter> jwtClaimsFilter(JwtClaimsCache jwtClaimsCache) {
+        FilterRegistrationBean<JwtClaimsFilter> registration = new FilterRegistrationBean<>(new JwtClaimsFilter(jwtClaimsCache));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,46 @@
+package com.esprit.microservice.jwtclaims;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded token to claims cache, so a client repeating the same bearer token is parsed once. Keys are the token
+ * strings (looked up by their cached hash, confirmed by equality), entries are dropped once the token's exp has
+ * passed, and the map is cleared when it reaches its bound rather than tracking recency on every hit.
+ */
+public class JwtClaimsCache {
+
+    private final int maximumSize;
+    private final Map<String, JwtClaims> claimsByToken = new ConcurrentHashMap<>();
+
+    public JwtClaimsCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public JwtClaims resolve(String token) {
+        long now = System.currentTimeMillis() / 1000;
+        JwtClaims claims = claimsByToken.get(token);
+        if (claims != null) {
+            if (!claims.isExpired(now)) {
+                return claims;
+            }
+            claimsByToken.remove(token, claims);
+            return null;
+        }
+        claims = JwtClaimsParser.parse(token);
+        if (claims == null || claims.isExpired(now)) {
+            return null;
+        }
+        if (maximumSize > 0) {
+            if (claimsByToken.size() >= maximumSize) {
+                claimsByToken.clear();
+            }
+            claimsByToken.put(token, claims);
+        }
+        return claims;
+    }
+
+    public int size() {
+        return claimsByToken.size();
+    }
+}
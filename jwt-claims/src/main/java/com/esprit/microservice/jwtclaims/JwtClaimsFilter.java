@@ -0,0 +1,34 @@
+package com.esprit.microservice.jwtclaims;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Resolves the bearer token's claims once per request and exposes them as a request attribute
+public class JwtClaimsFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtClaimsCache cache;
+
+    public JwtClaimsFilter(JwtClaimsCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            JwtClaims claims = cache.resolve(authHeader.substring(BEARER_PREFIX.length()));
+            if (claims != null) {
+                request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
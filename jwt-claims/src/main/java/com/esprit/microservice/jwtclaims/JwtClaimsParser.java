@@ -0,0 +1,114 @@
+package com.esprit.microservice.jwtclaims;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Reads sub, email, exp and realm_access.roles straight from the decoded payload bytes with a streaming parser.
+ * No regex split, no tree model and no ObjectMapper per call; every other claim is skipped without being
+ * materialized. Thread-safe: the JsonFactory and decoder are shared.
+ */
+public final class JwtClaimsParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private JwtClaimsParser() {
+    }
+
+    // Claims of a compact JWS, or null when the token is malformed or has no subject
+    public static JwtClaims parse(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+        try {
+            // Tokens are ASCII, so the segment bytes can be decoded without an intermediate substring
+            ByteBuffer segment = ByteBuffer.wrap(token.getBytes(StandardCharsets.ISO_8859_1), firstDot + 1, secondDot - firstDot - 1);
+            ByteBuffer payload = DECODER.decode(segment);
+            return readClaims(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private static JwtClaims readClaims(byte[] payload, int offset, int length) throws IOException {
+        String subject = null;
+        String email = null;
+        String preferredUsername = null;
+        long expiresAt = 0;
+        List<String> roles = List.of();
+        try (JsonParser parser = JSON.createParser(payload, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "sub" -> subject = readText(parser, value);
+                    case "email" -> email = readText(parser, value);
+                    case "preferred_username" -> preferredUsername = readText(parser, value);
+                    case "exp" -> expiresAt = readLong(parser, value);
+                    case "realm_access" -> roles = readRealmRoles(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (subject == null || subject.isEmpty()) {
+            return null;
+        }
+        return new JwtClaims(subject, email != null && !email.isEmpty() ? email : preferredUsername, roles, expiresAt);
+    }
+
+    // Other value types are ignored; objects and arrays are skipped whole so their fields are not read as claims
+    private static String readText(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static long readLong(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isNumeric()) {
+            return parser.getLongValue();
+        }
+        parser.skipChildren();
+        return 0;
+    }
+
+    // realm_access: {"roles": ["seller", ...]}
+    private static List<String> readRealmRoles(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return List.of();
+        }
+        List<String> roles = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("roles".equals(field) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                        roles.add(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return List.copyOf(roles);
+    }
+}
@@ -1,7 +1,6 @@
 package tn.esprit.spring.orderservice.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.esprit.microservice.jwtclaims.JwtClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -13,7 +12,6 @@ import tn.esprit.spring.orderservice.service.OrderService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import java.util.Base64;
 import java.util.List;
 
 @RestController
@@ -38,7 +36,7 @@ public class OrderController {
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request, HttpServletRequest httpRequest) {
         try {
             // ✅ Extract customer ID from JWT token
-            String customerId = extractCustomerIdFromToken(httpRequest);
+            String customerId = JwtClaims.require(httpRequest).subject();
             request.setCustomerId(customerId);
 
             log.info("Received request to create order for customer: {}", customerId);
@@ -153,34 +151,4 @@ public class OrderController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Order Service is running!");
     }
-
-    // ✅ JWT extraction methods
-    private String extractCustomerIdFromToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new RuntimeException("Authorization header missing or invalid");
-        }
-        String token = authHeader.substring(7);
-        return extractSubFromJWT(token);
-    }
-
-    private String extractSubFromJWT(String token) {
-        try {
-            String[] chunks = token.split("\\.");
-            if (chunks.length != 3) {
-                throw new RuntimeException("Invalid JWT token format");
-            }
-            Base64.Decoder decoder = Base64.getUrlDecoder();
-            String payload = new String(decoder.decode(chunks[1]));
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(payload);
-            String sub = jsonNode.get("sub").asText();
-            if (sub == null || sub.isEmpty()) {
-                throw new RuntimeException("Customer ID (sub) not found in token");
-            }
-            return sub;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract customer ID from token: " + e.getMessage());
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.esprit.microservice.productservice.client;
+
+import com.esprit.microservice.productservice.dto.InventoryResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.List;
+
+// Separate client context so the full inventory dump gets its own (longer) timeouts
+@FeignClient(name = "inventory-service", contextId = "inventory-snapshot", url = "${inventory.service.url:http://localhost:8082}")
+public interface InventorySnapshotClient {
+
+    @GetMapping("/api/inventory/all")
+    List<InventoryResponse> getAllInventory();
+}
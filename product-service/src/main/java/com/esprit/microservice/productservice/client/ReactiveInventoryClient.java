@@ -0,0 +1,38 @@
+package com.esprit.microservice.productservice.client;
+
+import com.esprit.microservice.productservice.dto.InventoryResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+// Non-blocking twin of InventoryClient, resolved through Eureka by the @LoadBalanced WebClient.Builder
+@Component
+public class ReactiveInventoryClient {
+
+    private static final ParameterizedTypeReference<List<InventoryResponse>> INVENTORY_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public ReactiveInventoryClient(WebClient.Builder webClientBuilder,
+                                   @Value("${inventory.service.lb-url:http://inventory-service}") String baseUrl,
+                                   @Value("${inventory.service.reactive-timeout:2s}") Duration timeout) {
+        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.timeout = timeout;
+    }
+
+    public Mono<List<InventoryResponse>> checkStock(List<String> skuCodes) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/inventory").queryParam("skuCode", skuCodes).build())
+                .retrieve()
+                .bodyToMono(INVENTORY_LIST)
+                .timeout(timeout);
+    }
+}
@@ -0,0 +1,19 @@
+package com.esprit.microservice.productservice.config;
+
+import com.esprit.microservice.productservice.dto.ProductFields;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // ProductResponse declares a filter for ?fields=; responses without a sparse fieldset write every property
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFieldsFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(ProductFields.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
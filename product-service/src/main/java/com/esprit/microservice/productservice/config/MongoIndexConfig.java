@@ -0,0 +1,79 @@
+package com.esprit.microservice.productservice.config;
+
+import com.esprit.microservice.productservice.model.OutboxEvent;
+import com.esprit.microservice.productservice.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.scheduling.annotation.Async;
+
+import java.time.Duration;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig {
+
+    // Must match the collation used by ProductRepository.findByCategory
+    public static final Collation CATEGORY_COLLATION = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    private final MongoTemplate mongoTemplate;
+
+    // Runs in the background so a missing MongoDB never blocks or fails startup
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureProductIndexes() {
+        try {
+            migrateStringPrices();
+
+            IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+            indexOps.ensureIndex(new Index().on("skuCode", Sort.Direction.ASC).named("skuCode"));
+            // Every filter index ends with _id so keyset pages can seek on (sortKey, _id) without an in-memory sort
+            indexOps.ensureIndex(new Index().on("category", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("category_ci_id").collation(CATEGORY_COLLATION));
+            indexOps.ensureIndex(new Index().on("sellerId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("sellerId_id"));
+            indexOps.ensureIndex(new Index().on("active", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("active_id"));
+            indexOps.ensureIndex(new Index().on("price", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("price_id"));
+            indexOps.ensureIndex(new Index().on("stockQuantity", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("stockQuantity_id"));
+
+            IndexOperations outboxIndexOps = mongoTemplate.indexOps(OutboxEvent.class);
+            outboxIndexOps.ensureIndex(new Index().on("status", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("status_id"));
+            // Published events are kept for a week for troubleshooting; pending ones have no sentAt and never expire
+            outboxIndexOps.ensureIndex(new Index().on("sentAt", Sort.Direction.ASC).named("sentAt_ttl")
+                    .expire(Duration.ofDays(7)));
+            log.info("Product collection indexes ensured");
+        } catch (Exception e) {
+            log.error("Failed to ensure product collection indexes: {}", e.getMessage());
+        }
+    }
+
+    // Prices used to be stored as strings, which breaks numeric range queries: convert them once to Decimal128.
+    // Runs against the raw collection so the price targetType does not rewrite the $type criteria.
+    private void migrateStringPrices() {
+        long converted = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("price").type(JsonSchemaObject.Type.STRING)),
+                AggregationUpdate.update().set("price").toValue(ConvertOperators.ToDecimal.toDecimal("$price")),
+                mongoTemplate.getCollectionName(Product.class)
+        ).getModifiedCount();
+        if (converted > 0) {
+            log.info("Converted {} string product prices to Decimal128", converted);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.esprit.microservice.productservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+@Configuration
+public class MongoTransactionConfig {
+
+    // Multi-document transactions need a replica set. When enabled, @Transactional product writes commit the
+    // product and its outbox events atomically; otherwise they are two consecutive writes.
+    @Bean
+    @ConditionalOnProperty(name = "product.outbox.transactional", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    }
+}
@@ -0,0 +1,71 @@
+package com.esprit.microservice.productservice.controller;
+
+import com.esprit.microservice.productservice.dto.UploadSessionRequest;
+import com.esprit.microservice.productservice.dto.UploadSessionResponse;
+import com.esprit.microservice.productservice.service.ChunkedUploadService;
+import com.esprit.microservice.productservice.service.ImageStorageService;
+import com.esprit.microservice.productservice.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Resumable chunked uploads: POST /sessions, PUT /sessions/{id}/chunks/{index}, GET progress, POST /complete
+@RestController
+@RequestMapping("/api/product/upload/sessions")
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+    private final ImageVariantService imageVariantService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public UploadSessionResponse initiate(@RequestBody UploadSessionRequest request) throws IOException {
+        return chunkedUploadService.initiate(request);
+    }
+
+    // Raw chunk bytes as the request body; offset is optional and only checked against index * chunkSize
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public UploadSessionResponse uploadChunk(@PathVariable String uploadId,
+                                             @PathVariable int index,
+                                             @RequestParam(required = false) Long offset,
+                                             HttpServletRequest request) throws IOException {
+        return chunkedUploadService.writeChunk(uploadId, index, offset, request.getContentLengthLong(), request.getInputStream());
+    }
+
+    // READ - progress, including the chunks still missing after an interrupted upload
+    @GetMapping("/{uploadId}")
+    public UploadSessionResponse getProgress(@PathVariable String uploadId) {
+        return chunkedUploadService.getProgress(uploadId);
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> complete(@PathVariable String uploadId) throws IOException {
+        ImageStorageService.StoredImage stored = chunkedUploadService.complete(uploadId);
+        imageVariantService.generateAsync(stored.filename());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("filename", stored.filename());
+        response.put("url", stored.url());
+        response.put("size", stored.size());
+        response.put("contentType", stored.contentType());
+        response.put("deduplicated", stored.deduplicated());
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void abort(@PathVariable String uploadId) throws IOException {
+        chunkedUploadService.abort(uploadId);
+    }
+}
@@ -1,23 +1,27 @@
 package com.esprit.microservice.productservice.controller;
 
+import com.esprit.microservice.productservice.service.ImageStorageService;
+import com.esprit.microservice.productservice.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.*;
 
 @RestController
@@ -26,8 +30,14 @@ import java.util.*;
 @Slf4j
 public class FileUploadController {
 
-    @Value("${file.upload-dir:uploads/products}")
-    private String uploadDir;
+    // Tomcat sendfile request attributes (see org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final ImageStorageService imageStorageService;
+    private final ImageVariantService imageVariantService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file) {
@@ -45,34 +55,21 @@ public class FileUploadController {
                         .body(Map.of("error", "Only image files are allowed"));
             }
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null && originalFilename.contains(".") 
-                    ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                    : "";
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Save file (content-addressed: identical images share one stored blob)
+            ImageStorageService.StoredImage stored = imageStorageService.store(file);
+            // Thumbnails and responsive sizes are produced in the background
+            imageVariantService.generateAsync(stored.filename());
 
-            log.info("File uploaded successfully: {}", uniqueFilename);
+            log.info("File uploaded successfully: {}", stored.filename());
 
             // Return file URL
-            String fileUrl = "/api/product/upload/" + uniqueFilename;
-            
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("filename", uniqueFilename);
-            response.put("url", fileUrl);
-            response.put("size", file.getSize());
+            response.put("filename", stored.filename());
+            response.put("url", stored.url());
+            response.put("size", stored.size());
             response.put("contentType", contentType);
+            response.put("deduplicated", stored.deduplicated());
 
             return ResponseEntity.ok(response);
 
@@ -87,58 +84,60 @@ public class FileUploadController {
     public ResponseEntity<Map<String, Object>> uploadMultipleFiles(@RequestParam("files") MultipartFile[] files) {
         List<Map<String, Object>> uploadedFiles = new ArrayList<>();
         List<String> errors = new ArrayList<>();
+        // Per-file outcome in request order, so the client can match results to the files it sent
+        List<Map<String, Object>> results = new ArrayList<>();
 
+        // Validate up front, then store the accepted parts concurrently on the upload pool
+        List<MultipartFile> accepted = new ArrayList<>();
+        Map<MultipartFile, String> rejected = new IdentityHashMap<>();
         for (MultipartFile file : files) {
-            try {
-                if (file.isEmpty()) {
-                    errors.add("Empty file: " + file.getOriginalFilename());
-                    continue;
-                }
-
-                // Validate file type
-                String contentType = file.getContentType();
-                if (contentType == null || !contentType.startsWith("image/")) {
-                    errors.add("Not an image: " + file.getOriginalFilename());
-                    continue;
-                }
-
-                // Create upload directory if it doesn't exist
-                Path uploadPath = Paths.get(uploadDir);
-                if (!Files.exists(uploadPath)) {
-                    Files.createDirectories(uploadPath);
-                }
+            String contentType = file.getContentType();
+            if (file.isEmpty()) {
+                rejected.put(file, "Empty file: " + file.getOriginalFilename());
+            } else if (contentType == null || !contentType.startsWith("image/")) {
+                rejected.put(file, "Not an image: " + file.getOriginalFilename());
+            } else {
+                accepted.add(file);
+            }
+        }
+        Iterator<ImageStorageService.StoreResult> stored = imageStorageService.storeAll(accepted).iterator();
 
-                // Generate unique filename
-                String originalFilename = file.getOriginalFilename();
-                String fileExtension = originalFilename != null && originalFilename.contains(".") 
-                        ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                        : "";
-                String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
+        for (MultipartFile file : files) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("originalFilename", file.getOriginalFilename());
+            String error = rejected.get(file);
+            ImageStorageService.StoreResult storeResult = error == null ? stored.next() : null;
+            if (storeResult != null) {
+                error = storeResult.error();
+            }
 
-                // Save file
-                Path filePath = uploadPath.resolve(uniqueFilename);
-                Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            if (error != null) {
+                errors.add(error);
+                result.put("success", false);
+                result.put("error", error);
+            } else {
+                ImageStorageService.StoredImage image = storeResult.stored();
+                imageVariantService.generateAsync(image.filename());
 
-                String fileUrl = "/api/product/upload/" + uniqueFilename;
-                
                 Map<String, Object> fileInfo = new HashMap<>();
-                fileInfo.put("filename", uniqueFilename);
-                fileInfo.put("url", fileUrl);
-                fileInfo.put("size", file.getSize());
-                fileInfo.put("contentType", contentType);
-                
-                uploadedFiles.add(fileInfo);
+                fileInfo.put("filename", image.filename());
+                fileInfo.put("url", image.url());
+                fileInfo.put("size", image.size());
+                fileInfo.put("contentType", file.getContentType());
+                fileInfo.put("deduplicated", image.deduplicated());
 
-            } catch (IOException e) {
-                log.error("Failed to upload file: {}", file.getOriginalFilename(), e);
-                errors.add("Failed to upload: " + file.getOriginalFilename());
+                uploadedFiles.add(fileInfo);
+                result.putAll(fileInfo);
+                result.put("success", true);
             }
+            results.add(result);
         }
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", uploadedFiles.size() > 0);
         response.put("uploadedFiles", uploadedFiles);
         response.put("totalUploaded", uploadedFiles.size());
+        response.put("results", results);
         
         if (!errors.isEmpty()) {
             response.put("errors", errors);
@@ -148,30 +147,74 @@ public class FileUploadController {
     }
 
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> getFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> getFile(@PathVariable String filename,
+                                            @RequestParam(value = "w", required = false) Integer width,
+                                            HttpServletRequest request,
+                                            HttpServletResponse response) {
         try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                // Determine content type
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
+            Path filePath = imageStorageService.resolve(filename);
+            if (filePath == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (!Files.isRegularFile(filePath) || !Files.isReadable(filePath)) {
+                return ResponseEntity.notFound().build();
+            }
+
+            // ?w=320: serve the nearest resized variant, generating it on first request
+            String servedName = filename;
+            boolean variantFallback = false;
+            if (width != null) {
+                Path variant = imageVariantService.variantFor(filename, width);
+                if (variant != null) {
+                    filePath = variant;
+                    servedName = variant.getFileName().toString();
+                } else {
+                    variantFallback = true;
                 }
+            }
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            String etag = imageStorageService.etagFor(servedName, attributes);
+            MediaType contentType = imageStorageService.mediaTypeFor(servedName);
+            // Content-addressed names never change content, so clients and the gateway may keep them forever. An
+            // original served in place of a ?w= variant (timeout, failed resize, unsupported format) must not be
+            // kept under the variant URL: the next request may get the real variant.
+            CacheControl cacheControl = variantFallback
+                    ? CacheControl.noStore()
+                    : imageStorageService.isContentAddressed(filename)
+                    ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                    : CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
+            // Set before the conditional check so a 304 carries the same Cache-Control as the full response
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+
+            // If-None-Match / If-Modified-Since: answers 304 without touching the file body
+            if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+                return null;
             }
-        } catch (MalformedURLException e) {
-            log.error("Error loading file: {}", filename, e);
-            return ResponseEntity.badRequest().build();
+
+            // Full-body responses go through Tomcat sendfile (kernel zero-copy) when the connector supports it;
+            // Range requests are answered with 206 partial content by Spring's resource region support
+            if (request.getHeader(HttpHeaders.RANGE) == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(contentType.toString());
+                response.setContentLengthLong(attributes.size());
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + servedName + "\"");
+                request.setAttribute(SENDFILE_FILENAME_ATTR, filePath.toString());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, attributes.size());
+                return null;
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + servedName + "\"")
+                    .body(new FileSystemResource(filePath));
         } catch (IOException e) {
-            log.error("Error determining content type: {}", filename, e);
+            log.error("Error loading file: {}", filename, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -179,12 +222,16 @@ public class FileUploadController {
     @DeleteMapping("/{filename:.+}")
     public ResponseEntity<Map<String, Object>> deleteFile(@PathVariable String filename) {
         try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
+            ImageStorageService.DeleteResult result = imageStorageService.delete(filename);
+
+            if (result == ImageStorageService.DeleteResult.DELETED) {
+                imageVariantService.deleteVariants(filename);
                 log.info("File deleted successfully: {}", filename);
                 return ResponseEntity.ok(Map.of("success", true, "message", "File deleted successfully"));
+            } else if (result == ImageStorageService.DeleteResult.REFERENCE_RELEASED) {
+                // Same content was uploaded more than once: keep the blob for the remaining references
+                log.info("File reference released, blob still referenced: {}", filename);
+                return ResponseEntity.ok(Map.of("success", true, "message", "File reference released"));
             } else {
                 return ResponseEntity.notFound().build();
             }
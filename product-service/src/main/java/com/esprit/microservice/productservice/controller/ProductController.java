@@ -1,18 +1,33 @@
 package com.esprit.microservice.productservice.controller;
 
 
+import com.esprit.microservice.jwtclaims.JwtClaims;
+import com.esprit.microservice.productservice.dto.ProductBatchResponse;
+import com.esprit.microservice.productservice.dto.ProductBulkUpdateReport;
+import com.esprit.microservice.productservice.dto.ProductBulkUpdateRequest;
+import com.esprit.microservice.productservice.dto.ProductFacets;
+import com.esprit.microservice.productservice.dto.ProductFields;
+import com.esprit.microservice.productservice.dto.ProductImportReport;
 import com.esprit.microservice.productservice.dto.ProductRequest;
 import com.esprit.microservice.productservice.dto.ProductResponse;
+import com.esprit.microservice.productservice.dto.ProductSuggestions;
+import com.esprit.microservice.productservice.service.ProductBulkUpdateService;
+import com.esprit.microservice.productservice.service.ProductFacetService;
+import com.esprit.microservice.productservice.service.ProductImportService;
 import com.esprit.microservice.productservice.service.ProductService;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.esprit.microservice.productservice.service.ProductSuggestionIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Base64;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -21,6 +36,11 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final ProductImportService productImportService;
+    private final ProductBulkUpdateService productBulkUpdateService;
+    private final ProductFacetService productFacetService;
+    private final ProductSuggestionIndex productSuggestionIndex;
 
     // CREATE - Create a new product
     @PostMapping
@@ -29,7 +49,7 @@ public class ProductController {
 
         try {
             // ✅ Extract seller ID from JWT token
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
             productRequest.setSellerId(sellerId);
 
             ProductResponse response = productService.createProduct(productRequest);
@@ -39,70 +59,108 @@ public class ProductController {
         }
     }
 
-    // ✅ ADD these JWT extraction methods
-    private String extractSellerIdFromToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new RuntimeException("Authorization header missing or invalid");
-        }
-        String token = authHeader.substring(7);
-        return extractSubFromJWT(token);
-    }
-
-    private String extractSubFromJWT(String token) {
-        try {
-            String[] chunks = token.split("\\.");
-            if (chunks.length != 3) {
-                throw new RuntimeException("Invalid JWT token format");
-            }
-            Base64.Decoder decoder = Base64.getUrlDecoder();
-            String payload = new String(decoder.decode(chunks[1]));
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(payload);
-            String sub = jsonNode.get("sub").asText();
-            if (sub == null || sub.isEmpty()) {
-                throw new RuntimeException("User ID (sub) not found in token");
-            }
-            return sub;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract user ID from token: " + e.getMessage());
-        }
+    // BULK IMPORT - CSV (header row: name,description,price,skuCode,category,imageUrls,stockQuantity,active) or NDJSON
+    // request body, parsed while it streams in. Returns per-row errors; valid rows are imported for the calling seller.
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductImportReport> importProducts(HttpServletRequest request) throws IOException {
+        String sellerId = JwtClaims.require(request).subject();
+        ProductImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? ProductImportService.Format.NDJSON
+                : ProductImportService.Format.CSV;
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format, sellerId));
     }
 
     // READ - Get all products
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<ProductResponse>> getAllProducts(HttpServletRequest request) {
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest request) {
+        ProductFields productFields = ProductFields.parse(fields);
         try {
             String authHeader = request.getHeader("Authorization");
 
             // ✅ No auth header = public access (all products for customers/catalog)
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                 System.out.println("🌐 Public access - returning all products");
-                return ResponseEntity.ok(productService.getAllProducts());
+                if (isPaged(cursor, size)) {
+                    return ResponseEntity.ok(withFields(
+                            productService.getAllProducts(cursor, pageSize(size), productFields), productFields));
+                }
+                return ResponseEntity.ok(withFields(productService.getAllProducts(), productFields));
             }
 
             // ✅ Extract seller ID from token
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
             System.out.println("👤 Authenticated user - sellerId: " + sellerId);
 
+            if (isPaged(cursor, size)) {
+                return ResponseEntity.ok(withFields(
+                        productService.getProductsBySeller(sellerId, cursor, pageSize(size), productFields), productFields));
+            }
+
             // ✅ Return only products that belong to this seller
             List<ProductResponse> sellerProducts = productService.getProductsBySeller(sellerId);
             System.out.println("📦 Found " + sellerProducts.size() + " products for seller: " + sellerId);
 
-            return ResponseEntity.ok(sellerProducts);
+            return ResponseEntity.ok(withFields(sellerProducts, productFields));
 
         } catch (Exception e) {
             System.err.println("⚠️ Error in token processing, fallback to public access: " + e.getMessage());
             // Fallback to public access for any token issues
-            return ResponseEntity.ok(productService.getAllProducts());
+            if (isPaged(cursor, size)) {
+                return ResponseEntity.ok(withFields(
+                        productService.getAllProducts(cursor, pageSize(size), productFields), productFields));
+            }
+            return ResponseEntity.ok(withFields(productService.getAllProducts(), productFields));
+        }
+    }
+
+    // EXPORT - Stream the catalog as NDJSON (one product per line), also served for GET /api/product
+    // with Accept: application/x-ndjson. Same scoping as getAllProducts: a seller token exports only its products.
+    @GetMapping(value = {"/export", ""}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(HttpServletRequest request) {
+        String sellerId = null;
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                sellerId = JwtClaims.require(request).subject();
+            } catch (RuntimeException e) {
+                // Fallback to public access for any token issues
+            }
         }
+
+        String exportSellerId = sellerId;
+        StreamingResponseBody body = outputStream -> {
+            try {
+                productService.exportProducts(exportSellerId, product -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(product));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Client went away mid-export, the Mongo cursor is closed by exportProducts
+                throw e.getCause();
+            }
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     // READ - Get product by ID
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable String id, HttpServletRequest request) {
+    public ResponseEntity<?> getProductById(@PathVariable String id,
+                                            @RequestParam(required = false) String fields,
+                                            HttpServletRequest request) {
+        ProductFields productFields = ProductFields.parse(fields);
         try {
             ProductResponse product = productService.getProductById(id);
 
@@ -110,10 +168,10 @@ public class ProductController {
 
             // ✅ No auth = public access (anyone can view individual products)
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return ResponseEntity.ok(product);
+                return ResponseEntity.ok(withFields(product, productFields));
             }
 
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
 
             // ✅ If authenticated, seller can only view their own products
             if (!product.getSellerId().equals(sellerId)) {
@@ -123,25 +181,68 @@ public class ProductController {
             }
 
             System.out.println("✅ Access granted - Seller viewing their own product");
-            return ResponseEntity.ok(product);
+            return ResponseEntity.ok(withFields(product, productFields));
 
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // READ - Get many products by id in one call (JSON array body) for other services; every id gets an entry,
+    // with found=false for unknown ones
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<?> getProductsByIds(
+            @RequestBody List<String> ids,
+            @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        ProductBatchResponse response = productService.getProductsByIds(ids, productFields);
+        return ResponseEntity.ok(withFields(response, productFields));
+    }
+
+    // READ - Get product by SKU code
+    @GetMapping("/sku/{skuCode}")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<?> getProductBySkuCode(@PathVariable String skuCode,
+                                                 @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        try {
+            return ResponseEntity.ok(withFields(productService.getProductBySkuCode(skuCode), productFields));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     // READ - Get products by category
     @GetMapping("/category/{category}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    public ResponseEntity<?> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        if (isPaged(cursor, size)) {
+            return ResponseEntity.ok(withFields(
+                    productService.getProductsByCategory(category, cursor, pageSize(size), productFields), productFields));
+        }
+        return ResponseEntity.ok(withFields(productService.getProductsByCategory(category), productFields));
     }
 
     // READ - Search products by name
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<ProductResponse>> searchProductsByName(@RequestParam String name) {
-        return ResponseEntity.ok(productService.searchProductsByName(name));
+    public ResponseEntity<?> searchProductsByName(
+            @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        if (isPaged(cursor, size)) {
+            return ResponseEntity.ok(withFields(
+                    productService.searchProductsByName(name, cursor, pageSize(size), productFields), productFields));
+        }
+        return ResponseEntity.ok(withFields(productService.searchProductsByName(name), productFields));
     }
 
     // UPDATE - Update product
@@ -153,6 +254,16 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateProduct(id, productRequest));
     }
 
+    // BULK UPDATE - Partial price/stock changes keyed by skuCode (only changed fields are written and announced)
+    @PatchMapping("/bulk")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<ProductBulkUpdateReport> bulkUpdateProducts(
+            @RequestBody List<ProductBulkUpdateRequest> updates,
+            HttpServletRequest request) {
+        String sellerId = JwtClaims.require(request).subject();
+        return ResponseEntity.ok(productBulkUpdateService.updatePricesAndStock(updates, sellerId));
+    }
+
     // DELETE - Delete product
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -164,31 +275,104 @@ public class ProductController {
     // ADVANCED - Get active products only
     @GetMapping("/active")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<ProductResponse>> getActiveProducts() {
-        return ResponseEntity.ok(productService.getActiveProducts());
+    public ResponseEntity<?> getActiveProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        if (isPaged(cursor, size)) {
+            return ResponseEntity.ok(withFields(
+                    productService.getActiveProducts(cursor, pageSize(size), productFields), productFields));
+        }
+        return ResponseEntity.ok(withFields(productService.getActiveProducts(), productFields));
     }
 
     // ADVANCED - Get products by price range
     @GetMapping("/price-range")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<ProductResponse>> getProductsByPriceRange(
+    public ResponseEntity<?> getProductsByPriceRange(
             @RequestParam Double minPrice,
-            @RequestParam Double maxPrice) {
-        return ResponseEntity.ok(productService.getProductsByPriceRange(minPrice, maxPrice));
+            @RequestParam Double maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        if (isPaged(cursor, size)) {
+            return ResponseEntity.ok(withFields(
+                    productService.getProductsByPriceRange(minPrice, maxPrice, cursor, pageSize(size), productFields), productFields));
+        }
+        return ResponseEntity.ok(withFields(productService.getProductsByPriceRange(minPrice, maxPrice), productFields));
     }
 
     // ADVANCED - Get low stock products
     @GetMapping("/low-stock")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<ProductResponse>> getLowStockProducts(
-            @RequestParam(defaultValue = "10") Integer threshold) {
-        return ResponseEntity.ok(productService.getLowStockProducts(threshold));
+    public ResponseEntity<?> getLowStockProducts(
+            @RequestParam(defaultValue = "10") Integer threshold,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        if (isPaged(cursor, size)) {
+            return ResponseEntity.ok(withFields(
+                    productService.getLowStockProducts(threshold, cursor, pageSize(size), productFields), productFields));
+        }
+        return ResponseEntity.ok(withFields(productService.getLowStockProducts(threshold), productFields));
+    }
+
+    // ADVANCED - Filter-sidebar counts (category, price bucket, seller, stock) for the products matching the filters
+    @GetMapping("/facets")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<ProductFacets> getProductFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String sellerId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean active) {
+        return ResponseEntity.ok(productFacetService.getFacets(category, sellerId, minPrice, maxPrice, active));
+    }
+
+    // ADVANCED - Typeahead: product names and categories starting with what was typed, most popular first
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<ProductSuggestions> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "5") Integer limit) {
+        return ResponseEntity.ok(productSuggestionIndex.suggest(q, Math.max(1, limit)));
     }
 
     // SELLER - Get products by seller ID
     @GetMapping("/seller/{sellerId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<ProductResponse>> getProductsBySeller(@PathVariable String sellerId) {
-        return ResponseEntity.ok(productService.getProductsBySeller(sellerId));
+    public ResponseEntity<?> getProductsBySeller(
+            @PathVariable String sellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        ProductFields productFields = ProductFields.parse(fields);
+        if (isPaged(cursor, size)) {
+            return ResponseEntity.ok(withFields(
+                    productService.getProductsBySeller(sellerId, cursor, pageSize(size), productFields), productFields));
+        }
+        return ResponseEntity.ok(withFields(productService.getProductsBySeller(sellerId), productFields));
+    }
+
+    // Pagination is opt-in: without ?cursor= or ?size= the endpoints keep returning the full list
+    private boolean isPaged(String cursor, Integer size) {
+        return cursor != null || size != null;
+    }
+
+    private int pageSize(Integer size) {
+        return size != null ? size : ProductService.DEFAULT_PAGE_SIZE;
+    }
+
+    // ?fields= trims the serialized ProductResponses to the requested properties
+    private Object withFields(Object body, ProductFields fields) {
+        if (fields == null) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(fields.filterProvider());
+        return value;
     }
 }
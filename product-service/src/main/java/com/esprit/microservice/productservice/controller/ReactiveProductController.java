@@ -0,0 +1,71 @@
+package com.esprit.microservice.productservice.controller;
+
+import com.esprit.microservice.productservice.dto.ProductResponse;
+import com.esprit.microservice.productservice.service.ReactiveProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking mirror of the ProductController GET endpoints: the servlet thread is released while Mongo and
+// inventory-service answer. Send Accept: application/x-ndjson to stream results instead of one JSON array.
+@RestController
+@RequestMapping("/api/product/reactive")
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+    private final ReactiveProductService reactiveProductService;
+
+    // READ - Get all products
+    @GetMapping
+    public Flux<ProductResponse> getAllProducts() {
+        return reactiveProductService.getAllProducts();
+    }
+
+    // READ - Get product by ID
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductResponse>> getProductById(@PathVariable String id) {
+        return reactiveProductService.getProductById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // READ - Get products by category
+    @GetMapping("/category/{category}")
+    public Flux<ProductResponse> getProductsByCategory(@PathVariable String category) {
+        return reactiveProductService.getProductsByCategory(category);
+    }
+
+    // READ - Search products by name
+    @GetMapping("/search")
+    public Flux<ProductResponse> searchProductsByName(@RequestParam String name) {
+        return reactiveProductService.searchProductsByName(name);
+    }
+
+    // ADVANCED - Get active products only
+    @GetMapping("/active")
+    public Flux<ProductResponse> getActiveProducts() {
+        return reactiveProductService.getActiveProducts();
+    }
+
+    // ADVANCED - Get products by price range
+    @GetMapping("/price-range")
+    public Flux<ProductResponse> getProductsByPriceRange(
+            @RequestParam Double minPrice,
+            @RequestParam Double maxPrice) {
+        return reactiveProductService.getProductsByPriceRange(minPrice, maxPrice);
+    }
+
+    // ADVANCED - Get low stock products
+    @GetMapping("/low-stock")
+    public Flux<ProductResponse> getLowStockProducts(@RequestParam(defaultValue = "10") Integer threshold) {
+        return reactiveProductService.getLowStockProducts(threshold);
+    }
+
+    // SELLER - Get products by seller ID
+    @GetMapping("/seller/{sellerId}")
+    public Flux<ProductResponse> getProductsBySeller(@PathVariable String sellerId) {
+        return reactiveProductService.getProductsBySeller(sellerId);
+    }
+}
@@ -1,5 +1,6 @@
 package com.esprit.microservice.productservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +12,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class InventoryResponse {
     private String skuCode;
+    // inventory-service serializes its boolean isInStock as "inStock"
+    @JsonProperty("inStock")
     private Boolean isInStock;
     private Integer availableQuantity;
+
+    // Same rule as inventory-service and the stock projection: a positive quantity; the flag when none was sent
+    public boolean hasStock() {
+        return availableQuantity != null ? availableQuantity > 0 : Boolean.TRUE.equals(isInStock);
+    }
 }
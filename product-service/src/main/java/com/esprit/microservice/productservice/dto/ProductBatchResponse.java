@@ -0,0 +1,29 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchResponse {
+    // Requested id -> result, in request order (duplicates collapsed)
+    private Map<String, Result> products;
+    private int found;
+    private int notFound;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Result {
+        private boolean found;
+        // Null when not found
+        private ProductResponse product;
+    }
+}
@@ -0,0 +1,21 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBulkUpdateReport {
+    private int received;
+    private int updated;
+    // Rows whose values already matched the catalog: no write, no event
+    private int unchanged;
+    private int failed;
+    private List<ProductImportReport.RowError> errors;
+}
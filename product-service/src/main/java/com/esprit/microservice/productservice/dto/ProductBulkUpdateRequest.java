@@ -0,0 +1,19 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One row of a bulk price/stock update; null fields are left untouched
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBulkUpdateRequest {
+    private String skuCode;
+    private BigDecimal price;
+    private Integer stockQuantity;
+}
@@ -0,0 +1,38 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFacets {
+    private long total;
+    // Value -> product count, most frequent first
+    private Map<String, Long> categories;
+    private Map<String, Long> sellers;
+    private List<PriceBucket> priceBuckets;
+    // From the inventory stock projection once it has loaded, the product's stockQuantity until then
+    private long inStock;
+    private long outOfStock;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PriceBucket {
+        // Inclusive lower bound, null for the open-ended bucket below the first boundary and for products without
+        // a price (the only bucket with both bounds null)
+        private BigDecimal min;
+        // Exclusive upper bound, null for the open-ended last bucket
+        private BigDecimal max;
+        private long count;
+    }
+}
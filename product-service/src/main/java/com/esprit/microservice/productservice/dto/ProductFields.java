@@ -0,0 +1,132 @@
+package com.esprit.microservice.productservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sparse fieldset requested with {@code ?fields=name,price,image}. It becomes the Mongo projection of list queries
+ * and a Jackson filter that writes only the requested ProductResponse properties; {@code id} is always included.
+ * {@code image} is shorthand for the first entry of imageUrls, fetched with a $slice projection.
+ */
+public final class ProductFields {
+
+    // Filter id declared on ProductResponse; without a per-request filter every property is written
+    public static final String FILTER_ID = "productFields";
+    public static final String IN_STOCK = "inStock";
+
+    private static final String FIRST_IMAGE = "image";
+    private static final String IMAGE_URLS = "imageUrls";
+
+    // ProductResponse property -> Product document field it is read from
+    private static final Map<String, String> DOCUMENT_FIELDS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("name", "name"),
+            Map.entry("description", "description"),
+            Map.entry("price", "price"),
+            Map.entry("skuCode", "skuCode"),
+            Map.entry("category", "category"),
+            Map.entry(IMAGE_URLS, IMAGE_URLS),
+            Map.entry(FIRST_IMAGE, IMAGE_URLS),
+            Map.entry("stockQuantity", "stockQuantity"),
+            Map.entry("active", "active"),
+            // Stock is looked up by skuCode
+            Map.entry(IN_STOCK, "skuCode"),
+            Map.entry("sellerId", "sellerId"),
+            Map.entry("createdAt", "createdAt"),
+            Map.entry("updatedAt", "updatedAt")
+    );
+
+    private final Set<String> requested;
+    private final boolean firstImageOnly;
+
+    private ProductFields(Set<String> requested) {
+        this.requested = requested;
+        this.firstImageOnly = requested.contains(FIRST_IMAGE) && !requested.contains(IMAGE_URLS);
+    }
+
+    // Null (the full representation) when the parameter is absent or blank
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!DOCUMENT_FIELDS.containsKey(name)) {
+                throw new RuntimeException("Unknown product field: " + name + ". Allowed fields: "
+                        + new TreeSet<>(DOCUMENT_FIELDS.keySet()));
+            }
+            requested.add(name);
+        }
+        return new ProductFields(requested);
+    }
+
+    public boolean includes(String property) {
+        return requested.contains(property);
+    }
+
+    /**
+     * Restricts {@code query} to the requested fields, plus {@code alsoRequired} document fields the caller needs
+     * itself (e.g. the keyset sort field).
+     */
+    public void project(Query query, String... alsoRequired) {
+        for (String property : requested) {
+            if (firstImageOnly && FIRST_IMAGE.equals(property)) {
+                query.fields().slice(IMAGE_URLS, 1);
+            } else if (!FIRST_IMAGE.equals(property)) {
+                query.fields().include(DOCUMENT_FIELDS.get(property));
+            }
+        }
+        for (String field : List.of(alsoRequired)) {
+            if (!"_id".equals(field)) {
+                query.fields().include(field);
+            }
+        }
+    }
+
+    public FilterProvider filterProvider() {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, new FieldsFilter());
+    }
+
+    private final class FieldsFilter extends SimpleBeanPropertyFilter {
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer)
+                throws Exception {
+            String name = writer.getName();
+            if (IMAGE_URLS.equals(name) && firstImageOnly && pojo instanceof ProductResponse response) {
+                // Documents served from the product cache still carry every image
+                List<String> imageUrls = response.getImageUrls();
+                gen.writeFieldName(name);
+                if (imageUrls == null) {
+                    gen.writeNull();
+                } else {
+                    gen.writeStartArray();
+                    if (!imageUrls.isEmpty()) {
+                        gen.writeString(imageUrls.get(0));
+                    }
+                    gen.writeEndArray();
+                }
+            } else if (requested.contains(name)) {
+                writer.serializeAsField(pojo, gen, provider);
+            } else if (!gen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, gen, provider);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportReport {
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private List<RowError> errors;
+    // True when more rows failed than are listed in errors
+    private boolean errorsTruncated;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        // 1-based data row (CSV header and blank NDJSON lines are not counted)
+        private int row;
+        private String skuCode;
+        private String message;
+    }
+}
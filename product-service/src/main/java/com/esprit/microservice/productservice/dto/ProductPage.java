@@ -0,0 +1,20 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPage {
+    private List<ProductResponse> content;
+    private int size;
+    private boolean hasNext;
+    // Opaque continuation token to pass back as ?cursor= for the next page, null on the last page
+    private String nextCursor;
+}
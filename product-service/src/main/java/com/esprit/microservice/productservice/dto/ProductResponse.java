@@ -1,6 +1,6 @@
 package com.esprit.microservice.productservice.dto;
 
-
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +14,7 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(ProductFields.FILTER_ID)
 public class ProductResponse {
     private String id;
     private String name;
@@ -0,0 +1,37 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSuggestions {
+    // Best first
+    private List<ProductSuggestion> products;
+    private List<CategorySuggestion> categories;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProductSuggestion {
+        private String id;
+        private String name;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CategorySuggestion {
+        private String name;
+        // Active products in the category
+        private long productCount;
+    }
+}
@@ -0,0 +1,18 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionRequest {
+    private String filename;
+    private String contentType;
+    private Long size;
+    // Optional, defaults to file.chunked-upload.chunk-size
+    private Integer chunkSize;
+}
@@ -0,0 +1,27 @@
+package com.esprit.microservice.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionResponse {
+    private String uploadId;
+    private String filename;
+    private String contentType;
+    private long size;
+    private int chunkSize;
+    private int totalChunks;
+    private int receivedChunks;
+    private long receivedBytes;
+    private List<Integer> missingChunks;
+    private boolean complete;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,74 @@
+package com.esprit.microservice.productservice.listener;
+
+import com.esprit.microservice.productservice.service.InventoryStockProjection;
+import com.esprit.microservice.productservice.service.ProductFacetService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Feeds this instance's InventoryStockProjection from the events inventory-service publishes, and drops the cached
+ * facet counts when a SKU goes in or out of stock.
+ * Like ProductEventListener, each instance consumes with its own group id so every instance sees every event.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryEventListener {
+
+    private final InventoryStockProjection inventoryStockProjection;
+    private final ProductFacetService productFacetService;
+
+    // Unique per instance: events are broadcast to every instance instead of being shared within one group
+    @Getter
+    private final String groupId = "product-service-inventory-" + UUID.randomUUID();
+
+    @KafkaListener(topics = "inventory-created-topic", groupId = "#{__listener.groupId}", autoStartup = "${kafka.listener.auto-startup:true}")
+    public void handleInventoryCreated(@Payload Map<String, Object> event,
+                                       @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("Received InventoryCreatedEvent: {}", event);
+        try {
+            String skuCode = (String) event.get("skuCode");
+            Number quantity = (Number) event.get("quantity");
+            if (skuCode != null && quantity != null
+                    && inventoryStockProjection.applyQuantity(skuCode, quantity.intValue(), timestamp)) {
+                productFacetService.invalidate();
+            }
+        } catch (Exception e) {
+            log.error("Error processing InventoryCreatedEvent", e);
+        }
+    }
+
+    @KafkaListener(topics = "inventory-updated-topic", groupId = "#{__listener.groupId}", autoStartup = "${kafka.listener.auto-startup:true}")
+    public void handleInventoryUpdated(@Payload Map<String, Object> event,
+                                       @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("Received InventoryUpdatedEvent: {}", event);
+        try {
+            String skuCode = (String) event.get("skuCode");
+            Number quantity = (Number) event.get("quantity");
+            if (skuCode == null || quantity == null) {
+                return;
+            }
+            // UPDATE carries the new quantity, INCREASE/DECREASE the amount added or removed
+            boolean stockChanged = switch (String.valueOf(event.get("action"))) {
+                case "INCREASE" -> inventoryStockProjection.applyDelta(skuCode, quantity.intValue(), timestamp);
+                case "DECREASE" -> inventoryStockProjection.applyDelta(skuCode, -quantity.intValue(), timestamp);
+                default -> inventoryStockProjection.applyQuantity(skuCode, quantity.intValue(), timestamp);
+            };
+            // The in/out-of-stock facet counts only move when a SKU crosses zero
+            if (stockChanged) {
+                productFacetService.invalidate();
+            }
+        } catch (Exception e) {
+            log.error("Error processing InventoryUpdatedEvent", e);
+        }
+    }
+}
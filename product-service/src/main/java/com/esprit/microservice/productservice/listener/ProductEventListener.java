@@ -0,0 +1,115 @@
+package com.esprit.microservice.productservice.listener;
+
+import com.esprit.microservice.productservice.repository.ProductRepository;
+import com.esprit.microservice.productservice.service.InventoryStockCache;
+import com.esprit.microservice.productservice.service.InventoryStockProjection;
+import com.esprit.microservice.productservice.service.ProductCache;
+import com.esprit.microservice.productservice.service.ProductCatalogIndex;
+import com.esprit.microservice.productservice.service.ProductFacetService;
+import com.esprit.microservice.productservice.service.ProductSearchIndex;
+import com.esprit.microservice.productservice.service.ProductSuggestionIndex;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps this instance's in-process product state (near-cache, search, catalog and suggestion indexes, facet
+ * counts) coherent with writes made by any product-service instance. Each instance consumes with its own group id
+ * so every instance sees every event.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventListener {
+
+    private final ProductCache productCache;
+    private final InventoryStockCache inventoryStockCache;
+    private final InventoryStockProjection inventoryStockProjection;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCatalogIndex productCatalogIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductFacetService productFacetService;
+    private final ProductRepository productRepository;
+
+    // Unique per instance: events are broadcast to every instance instead of being shared within one group
+    @Getter
+    private final String groupId = "product-service-" + UUID.randomUUID();
+
+    @KafkaListener(topics = "product-created-topic", groupId = "#{__listener.groupId}", autoStartup = "${kafka.listener.auto-startup:true}")
+    public void handleProductCreated(@Payload Map<String, Object> event,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("Received ProductCreatedEvent: {}", event);
+        try {
+            applyQuantity(event, timestamp);
+            productFacetService.invalidate();
+            reindex((String) event.get("productId"));
+        } catch (Exception e) {
+            log.error("Error processing ProductCreatedEvent", e);
+        }
+    }
+
+    @KafkaListener(topics = "product-updated-topic", groupId = "#{__listener.groupId}", autoStartup = "${kafka.listener.auto-startup:true}")
+    public void handleProductUpdated(@Payload Map<String, Object> event,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("Received ProductUpdatedEvent: {}", event);
+        try {
+            String productId = (String) event.get("productId");
+            productCache.evict(productId, (String) event.get("skuCode"));
+            productFacetService.invalidate();
+            if (event.get("quantity") != null) {
+                inventoryStockCache.evict((String) event.get("skuCode"));
+                applyQuantity(event, timestamp);
+            }
+            reindex(productId);
+        } catch (Exception e) {
+            log.error("Error processing ProductUpdatedEvent", e);
+        }
+    }
+
+    @KafkaListener(topics = "product-deleted-topic", groupId = "#{__listener.groupId}", autoStartup = "${kafka.listener.auto-startup:true}")
+    public void handleProductDeleted(Map<String, Object> event) {
+        log.debug("Received ProductDeletedEvent: {}", event);
+        try {
+            String productId = (String) event.get("productId");
+            productCache.evict(productId, (String) event.get("skuCode"));
+            inventoryStockCache.evict((String) event.get("skuCode"));
+            productFacetService.invalidate();
+            productSearchIndex.remove(productId);
+            productCatalogIndex.remove(productId);
+            productSuggestionIndex.remove(productId);
+        } catch (Exception e) {
+            log.error("Error processing ProductDeletedEvent", e);
+        }
+    }
+
+    // inventory-service sets the Inventory quantity from product created/updated events without publishing an
+    // inventory event, so the projection takes the quantity from the product event itself
+    private void applyQuantity(Map<String, Object> event, long timestamp) {
+        String skuCode = (String) event.get("skuCode");
+        Number quantity = (Number) event.get("quantity");
+        if (skuCode != null && quantity != null) {
+            inventoryStockProjection.applyQuantity(skuCode, quantity.intValue(), timestamp);
+        }
+    }
+
+    // Also while the indexes are still building: the build cursor may already have passed this product, and it
+    // skips products indexed here
+    private void reindex(String productId) {
+        if (productId != null && (productSearchIndex.isEnabled() || productCatalogIndex.isEnabled()
+                || productSuggestionIndex.isEnabled())) {
+            productRepository.findById(productId).ifPresent(product -> {
+                productSearchIndex.index(product);
+                productCatalogIndex.index(product);
+                productSuggestionIndex.index(product);
+            });
+        }
+    }
+}
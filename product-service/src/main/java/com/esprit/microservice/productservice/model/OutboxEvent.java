@@ -0,0 +1,37 @@
+package com.esprit.microservice.productservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Domain event waiting in the product_outbox collection until OutboxRelay has published it to Kafka
+@Document(value = "product_outbox")
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class OutboxEvent {
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    // Gave up after product.outbox.relay.max-attempts failed sends; needs manual replay (set back to PENDING)
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+    private String topic;
+    // Kafka record key (the product skuCode) so all events of one SKU land on the same partition, in order
+    private String key;
+    private Object payload;
+    private String status;
+    private Integer attempts;
+    private String lastError;
+    // Earliest retry after a failed send; the relay holds back the whole queue until then to keep the order
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,31 @@
+package com.esprit.microservice.productservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// Resumable chunked upload in progress; chunks are written into a preallocated file under the upload directory
+@Document(value = "upload_session")
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class UploadSession {
+    @Id
+    private String id;
+    private String filename;
+    private String contentType;
+    private long size;
+    private int chunkSize;
+    private int totalChunks;
+    // Indexes of the chunks fully written so far; a retry only needs to resend the others
+    private Set<Integer> receivedChunks;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
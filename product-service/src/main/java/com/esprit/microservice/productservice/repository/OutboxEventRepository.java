@@ -0,0 +1,17 @@
+package com.esprit.microservice.productservice.repository;
+
+import com.esprit.microservice.productservice.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+    // Oldest first: _id is an ObjectId, so it orders events by insertion
+    List<OutboxEvent> findByStatusOrderByIdAsc(String status, Pageable pageable);
+
+    Optional<OutboxEvent> findFirstByStatusOrderByIdAsc(String status);
+
+    long countByStatus(String status);
+}
@@ -1,10 +1,34 @@
 package com.esprit.microservice.productservice.repository;
 
 import com.esprit.microservice.productservice.model.Product;
+import org.springframework.data.domain.Range;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
     List<Product> findBySellerId(String sellerId);
+
+    Optional<Product> findBySkuCode(String skuCode);
+
+    // Cursor-backed streams: documents are fetched batch by batch as the stream is consumed
+    Stream<Product> streamAllBy();
+
+    Stream<Product> streamBySellerId(String sellerId);
+
+    // Case-insensitive equality served by the category index (same collation, see MongoIndexConfig)
+    @Query(value = "{ 'category': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
+    List<Product> findByCategory(String category);
+
+    List<Product> findByNameContainingIgnoreCase(String name);
+
+    List<Product> findByActiveTrue();
+
+    List<Product> findByPriceBetween(Range<BigDecimal> priceRange);
+
+    List<Product> findByStockQuantityLessThan(Integer threshold);
 }
@@ -0,0 +1,23 @@
+package com.esprit.microservice.productservice.repository;
+
+import com.esprit.microservice.productservice.dto.ProductFields;
+import com.esprit.microservice.productservice.model.Product;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset page: documents matching {@code filter}, ordered by ({@code sortField}, _id) and strictly after the
+     * ({@code afterValue}, {@code afterId}) position. Pass a null {@code afterId} for the first page.
+     * A non-null {@code fields} projects the documents down to those fields (plus the sort field).
+     */
+    List<Product> findPage(Criteria filter, Collation collation, String sortField,
+                           Object afterValue, String afterId, int limit, ProductFields fields);
+
+    // Documents with the given ids in no particular order, projected like findPage when fields is non-null
+    List<Product> findAllById(Collection<String> ids, ProductFields fields);
+}
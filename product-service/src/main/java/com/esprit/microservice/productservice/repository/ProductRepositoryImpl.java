@@ -0,0 +1,59 @@
+package com.esprit.microservice.productservice.repository;
+
+import com.esprit.microservice.productservice.dto.ProductFields;
+import com.esprit.microservice.productservice.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String ID_FIELD = "_id";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Product> findPage(Criteria filter, Collation collation, String sortField,
+                                  Object afterValue, String afterId, int limit, ProductFields fields) {
+        Criteria criteria = filter;
+        if (afterId != null) {
+            // Seek past the last returned (sortField, _id) instead of skipping, so deep pages cost the same
+            Criteria seek = ID_FIELD.equals(sortField)
+                    ? Criteria.where(ID_FIELD).gt(afterId)
+                    : new Criteria().orOperator(
+                            Criteria.where(sortField).gt(afterValue),
+                            new Criteria().andOperator(
+                                    Criteria.where(sortField).is(afterValue),
+                                    Criteria.where(ID_FIELD).gt(afterId)));
+            criteria = new Criteria().andOperator(filter, seek);
+        }
+
+        Sort sort = ID_FIELD.equals(sortField)
+                ? Sort.by(ID_FIELD)
+                : Sort.by(sortField).and(Sort.by(ID_FIELD));
+        Query query = Query.query(criteria).with(sort).limit(limit);
+        if (collation != null) {
+            query.collation(collation);
+        }
+        if (fields != null) {
+            fields.project(query, sortField);
+        }
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public List<Product> findAllById(Collection<String> ids, ProductFields fields) {
+        Query query = Query.query(Criteria.where(ID_FIELD).in(ids));
+        if (fields != null) {
+            fields.project(query);
+        }
+        return mongoTemplate.find(query, Product.class);
+    }
+}
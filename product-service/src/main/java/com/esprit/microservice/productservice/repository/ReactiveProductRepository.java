@@ -0,0 +1,26 @@
+package com.esprit.microservice.productservice.repository;
+
+import com.esprit.microservice.productservice.model.Product;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+
+// Non-blocking counterpart of ProductRepository, used by the /api/product/reactive read path
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {
+    Flux<Product> findBySellerId(String sellerId);
+
+    // Case-insensitive equality served by the category index (same collation, see MongoIndexConfig)
+    @Query(value = "{ 'category': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
+    Flux<Product> findByCategory(String category);
+
+    Flux<Product> findByNameContainingIgnoreCase(String name);
+
+    Flux<Product> findByActiveTrue();
+
+    Flux<Product> findByPriceBetween(Range<BigDecimal> priceRange);
+
+    Flux<Product> findByStockQuantityLessThan(Integer threshold);
+}
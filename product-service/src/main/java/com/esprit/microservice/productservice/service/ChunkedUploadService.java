@@ -0,0 +1,247 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.dto.UploadSessionRequest;
+import com.esprit.microservice.productservice.dto.UploadSessionResponse;
+import com.esprit.microservice.productservice.model.UploadSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resumable uploads for large product media: the client initiates a session, PUTs fixed-size chunks in any order
+ * (each written at its offset into a preallocated file), and completes once every chunk has arrived. Received
+ * chunks are tracked in the upload_session collection, so after a dropped connection only the missing ones are
+ * resent. The finished file is handed to ImageStorageService like any other upload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadService {
+
+    private static final String CHUNK_DIR = "chunks";
+
+    private final MongoTemplate mongoTemplate;
+    private final ImageStorageService imageStorageService;
+
+    @Value("${file.chunked-upload.chunk-size:5MB}")
+    private DataSize defaultChunkSize;
+
+    @Value("${file.chunked-upload.max-chunk-size:32MB}")
+    private DataSize maxChunkSize;
+
+    @Value("${file.chunked-upload.max-size:2GB}")
+    private DataSize maxSize;
+
+    @Value("${file.chunked-upload.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    public UploadSessionResponse initiate(UploadSessionRequest request) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType == null || !(contentType.startsWith("image/") || contentType.startsWith("video/"))) {
+            throw new RuntimeException("Only image and video files are allowed");
+        }
+        if (request.getSize() == null || request.getSize() <= 0) {
+            throw new RuntimeException("File size is required");
+        }
+        if (request.getSize() > maxSize.toBytes()) {
+            throw new RuntimeException("File exceeds the maximum upload size of " + maxSize.toMegabytes() + "MB");
+        }
+        long chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize.toBytes();
+        if (chunkSize <= 0 || chunkSize > maxChunkSize.toBytes()) {
+            throw new RuntimeException("Chunk size must be between 1 and " + maxChunkSize.toBytes() + " bytes");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .filename(request.getFilename())
+                .contentType(contentType)
+                .size(request.getSize())
+                .chunkSize((int) chunkSize)
+                .totalChunks((int) ((request.getSize() + chunkSize - 1) / chunkSize))
+                .receivedChunks(new HashSet<>())
+                .createdAt(now)
+                .expiresAt(now.plus(sessionTtl))
+                .build();
+
+        // Preallocate so chunks can be written at their offsets in any order
+        try (RandomAccessFile file = new RandomAccessFile(partFile(session.getId()).toFile(), "rw")) {
+            file.setLength(session.getSize());
+        }
+        mongoTemplate.insert(session);
+        log.info("Chunked upload {} initiated: {} bytes in {} chunks", session.getId(), session.getSize(), session.getTotalChunks());
+        return mapToResponse(session);
+    }
+
+    /**
+     * Writes chunk {@code index} straight from the request body into the part file at its offset.
+     * Resending a chunk that already arrived simply overwrites it with the same bytes.
+     */
+    public UploadSessionResponse writeChunk(String uploadId, int index, Long offset, long contentLength, InputStream body) throws IOException {
+        UploadSession session = getSession(uploadId);
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new RuntimeException("Chunk index out of range: " + index);
+        }
+        long position = (long) index * session.getChunkSize();
+        if (offset != null && offset != position) {
+            throw new RuntimeException("Chunk " + index + " starts at offset " + position + ", not " + offset);
+        }
+        long length = Math.min(session.getChunkSize(), session.getSize() - position);
+        if (contentLength >= 0 && contentLength != length) {
+            throw new RuntimeException("Chunk " + index + " must be " + length + " bytes, got " + contentLength);
+        }
+
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(body)) {
+            while (written < length) {
+                long transferred = channel.transferFrom(source, position + written, length - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written == length) {
+                // Only acknowledge a chunk once its bytes are on disk
+                channel.force(false);
+            }
+        }
+        if (written != length) {
+            throw new RuntimeException("Chunk " + index + " was truncated after " + written + " of " + length + " bytes");
+        }
+
+        UploadSession updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(uploadId)),
+                new Update().addToSet("receivedChunks", index).set("expiresAt", LocalDateTime.now().plus(sessionTtl)),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (updated == null) {
+            throw new RuntimeException("Upload session not found: " + uploadId);
+        }
+        return mapToResponse(updated);
+    }
+
+    public UploadSessionResponse getProgress(String uploadId) {
+        return mapToResponse(getSession(uploadId));
+    }
+
+    // Moves the assembled file into the image store and closes the session
+    public ImageStorageService.StoredImage complete(String uploadId) throws IOException {
+        UploadSession session = getSession(uploadId);
+        if (session.getReceivedChunks().size() < session.getTotalChunks()) {
+            throw new RuntimeException("Upload incomplete: missing chunks " + missingChunks(session));
+        }
+        // Claim the session first so two concurrent completes cannot both move the file
+        UploadSession claimed = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(uploadId)), UploadSession.class);
+        if (claimed == null) {
+            throw new RuntimeException("Upload session not found: " + uploadId);
+        }
+        ImageStorageService.StoredImage stored;
+        try {
+            stored = imageStorageService.storeFile(partFile(uploadId), session.getContentType(), session.getFilename());
+        } catch (IOException | RuntimeException e) {
+            // Keep the session so the client can retry the complete call without re-uploading
+            mongoTemplate.insert(claimed);
+            throw e;
+        }
+        log.info("Chunked upload {} completed as {}", uploadId, stored.filename());
+        return stored;
+    }
+
+    public void abort(String uploadId) throws IOException {
+        UploadSession session = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(uploadId)), UploadSession.class);
+        if (session == null) {
+            throw new RuntimeException("Upload session not found: " + uploadId);
+        }
+        Files.deleteIfExists(partFile(uploadId));
+    }
+
+    // Sessions abandoned past their TTL release their preallocated disk space
+    @Scheduled(fixedDelayString = "${file.chunked-upload.cleanup-interval-ms:600000}")
+    public void removeExpiredSessions() {
+        try {
+            List<UploadSession> expired = mongoTemplate.findAllAndRemove(
+                    Query.query(Criteria.where("expiresAt").lt(LocalDateTime.now())), UploadSession.class);
+            for (UploadSession session : expired) {
+                Files.deleteIfExists(partFile(session.getId()));
+            }
+            if (!expired.isEmpty()) {
+                log.info("Removed {} expired chunked upload sessions", expired.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to remove expired upload sessions: {}", e.getMessage());
+        }
+    }
+
+    private UploadSession getSession(String uploadId) {
+        UploadSession session = mongoTemplate.findById(uploadId, UploadSession.class);
+        if (session == null) {
+            throw new RuntimeException("Upload session not found: " + uploadId);
+        }
+        return session;
+    }
+
+    private Path partFile(String uploadId) throws IOException {
+        // Session ids are server-generated UUIDs; reject anything else before touching the filesystem
+        UUID.fromString(uploadId);
+        return imageStorageService.tempDirectory(CHUNK_DIR).resolve(uploadId + ".part");
+    }
+
+    private static List<Integer> missingChunks(UploadSession session) {
+        Set<Integer> received = session.getReceivedChunks();
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < session.getTotalChunks(); i++) {
+            if (received == null || !received.contains(i)) {
+                missing.add(i);
+            }
+        }
+        return missing;
+    }
+
+    private static UploadSessionResponse mapToResponse(UploadSession session) {
+        Set<Integer> received = session.getReceivedChunks() != null ? session.getReceivedChunks() : Set.of();
+        long receivedBytes = 0;
+        for (int index : received) {
+            long position = (long) index * session.getChunkSize();
+            receivedBytes += Math.min(session.getChunkSize(), session.getSize() - position);
+        }
+        return UploadSessionResponse.builder()
+                .uploadId(session.getId())
+                .filename(session.getFilename())
+                .contentType(session.getContentType())
+                .size(session.getSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .receivedChunks(received.size())
+                .receivedBytes(receivedBytes)
+                .missingChunks(missingChunks(session))
+                .complete(received.size() == session.getTotalChunks())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
@@ -3,26 +3,26 @@ package com.esprit.microservice.productservice.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
 
-    @Async
     public void sendProductAddedNotification(String sellerEmail, String productName, String productId) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -32,18 +32,67 @@ public class EmailService {
             helper.setTo(sellerEmail);
             helper.setSubject("Product Successfully Added - " + productName);
 
-            String htmlContent = buildProductAddedEmailTemplate(productName, productId);
+            String htmlContent = PRODUCT_ADDED_TEMPLATE.render(Map.of("productName", productName, "productId", productId));
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
-            log.info("Product added notification email sent to: {}", sellerEmail);
-        } catch (MessagingException e) {
+            // Queued for the SMTP workers; the caller never waits on the mail server
+            if (mailDispatcher.dispatch(message)) {
+                log.info("Product added notification email queued for: {}", sellerEmail);
+            }
+        } catch (MessagingException | RuntimeException e) {
             log.error("Failed to send product added notification email to: {}", sellerEmail, e);
         }
     }
 
-    private String buildProductAddedEmailTemplate(String productName, String productId) {
-        return """
+    public void sendBulkImportSummary(String sellerEmail, int totalRows, int imported, int failed) {
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setFrom(fromEmail);
+            helper.setTo(sellerEmail);
+            helper.setSubject("Product Import Finished - " + imported + " of " + totalRows + " products added");
+
+            String htmlContent = BULK_IMPORT_SUMMARY_TEMPLATE.render(Map.of("totalRows", totalRows, "imported", imported, "failed", failed));
+            helper.setText(htmlContent, true);
+
+            if (mailDispatcher.dispatch(message)) {
+                log.info("Bulk import summary email queued for: {}", sellerEmail);
+            }
+        } catch (MessagingException | RuntimeException e) {
+            log.error("Failed to send bulk import summary email to: {}", sellerEmail, e);
+        }
+    }
+
+    private static final MailTemplate BULK_IMPORT_SUMMARY_TEMPLATE = MailTemplate.compile("""
+                <!DOCTYPE html>
+                <html>
+                <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
+                    <div style="max-width: 600px; margin: 0 auto; padding: 20px; background-color: #f9f9f9;">
+                        <div style="background-color: #4F46E5; color: white; padding: 20px; text-align: center; border-radius: 5px 5px 0 0;">
+                            <h1>Product Import Finished</h1>
+                        </div>
+                        <div style="background-color: white; padding: 30px; border-radius: 0 0 5px 5px;">
+                            <h2>Hello Seller,</h2>
+                            <p>Your bulk product import has been processed.</p>
+                            <div style="background-color: #EEF2FF; padding: 15px; border-radius: 5px; margin: 20px 0;">
+                                <p><strong>Rows processed:</strong> {{totalRows}}</p>
+                                <p><strong>Products added:</strong> <span style="color: #10B981;">{{imported}}</span></p>
+                                <p><strong>Rows rejected:</strong> <span style="color: #EF4444;">{{failed}}</span></p>
+                            </div>
+                            <p>Rejected rows are listed in the import report returned by the upload.</p>
+                            <p>Best regards,<br>
+                            <strong>E-Commerce Team</strong></p>
+                        </div>
+                        <div style="text-align: center; margin-top: 20px; color: #666; font-size: 12px;">
+                            <p>This is an automated notification. Please do not reply to this email.</p>
+                        </div>
+                    </div>
+                </body>
+                </html>
+                """);
+
+    private static final MailTemplate PRODUCT_ADDED_TEMPLATE = MailTemplate.compile("""
                 <!DOCTYPE html>
                 <html>
                 <head>
@@ -102,8 +151,8 @@ public class EmailService {
                             
                             <div class="product-info">
                                 <h3>Product Details:</h3>
-                                <p><strong>Product Name:</strong> %s</p>
-                                <p><strong>Product ID:</strong> %s</p>
+                                <p><strong>Product Name:</strong> {{productName}}</p>
+                                <p><strong>Product ID:</strong> {{productId}}</p>
                                 <p><strong>Status:</strong> <span style="color: #10B981;">Active</span></p>
                             </div>
                             
@@ -129,6 +178,5 @@ public class EmailService {
                     </div>
                 </body>
                 </html>
-                """.formatted(productName, productId);
-    }
+                """);
 }
@@ -0,0 +1,350 @@
+package com.esprit.microservice.productservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores product images on local disk. In content-addressed mode (default) a file is named after the SHA-256 of
+ * its bytes, sharded as ab/cd/&lt;hash&gt;.&lt;ext&gt;, stored once however often it is uploaded, and reference counted in
+ * the image_blob collection so a delete only removes the blob once nothing references it.
+ * Legacy UUID-named files in the upload root keep being served and deleted as before.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageStorageService {
+
+    public static final String URL_PREFIX = "/api/product/upload/";
+
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("^[0-9a-f]{64}(\\.[a-z0-9]+)?$");
+    // Content-addressed original or one of its resized variants (<hash>_w320.jpg)
+    private static final Pattern CONTENT_ADDRESSED_ETAG = Pattern.compile("^([0-9a-f]{64}(?:_w\\d+)?)(\\.[a-z0-9]+)?$");
+    private static final String BLOB_COLLECTION = "image_blob";
+    private static final String TEMP_DIR = ".tmp";
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/webp", ".webp",
+            "image/avif", ".avif",
+            "image/svg+xml", ".svg",
+            "image/bmp", ".bmp",
+            "video/mp4", ".mp4",
+            "video/webm", ".webm",
+            "video/quicktime", ".mov"
+    );
+
+    private final MongoTemplate mongoTemplate;
+    // Striped locks serialize store/delete of the same blob within this instance
+    private final Object[] blobLocks = createLocks(64);
+    private final Map<String, MediaType> mediaTypesByExtension = new ConcurrentHashMap<>();
+    private final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor uploadExecutor;
+
+    @Value("${file.upload-dir:uploads/products}")
+    private String uploadDir;
+
+    @Value("${file.storage.content-addressed:true}")
+    private boolean contentAddressed;
+
+    @Value("${file.upload.parallelism:4}")
+    private int uploadParallelism;
+
+    public record StoredImage(String filename, String url, long size, String contentType, boolean deduplicated) {
+    }
+
+    public record StoreResult(String originalFilename, StoredImage stored, String error) {
+    }
+
+    @PostConstruct
+    void startUploadExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded pool shared by all multi-file uploads; a full queue makes the request thread store the part itself
+        uploadExecutor = new ThreadPoolExecutor(uploadParallelism, uploadParallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(uploadParallelism * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stopUploadExecutor() {
+        uploadExecutor.shutdown();
+    }
+
+    /**
+     * Stores several parts concurrently on the upload pool. Results are in input order; a part that fails carries
+     * its error instead of failing the whole batch.
+     */
+    public List<StoreResult> storeAll(List<MultipartFile> files) {
+        List<CompletableFuture<StoreResult>> futures = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> storeQuietly(file), uploadExecutor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private StoreResult storeQuietly(MultipartFile file) {
+        try {
+            return new StoreResult(file.getOriginalFilename(), store(file), null);
+        } catch (Exception e) {
+            log.error("Failed to upload file: {}", file.getOriginalFilename(), e);
+            return new StoreResult(file.getOriginalFilename(), null, "Failed to upload: " + file.getOriginalFilename());
+        }
+    }
+
+    public StoredImage store(MultipartFile file) throws IOException {
+        String contentType = file.getContentType();
+        String extension = extensionFor(contentType, file.getOriginalFilename());
+        if (!contentAddressed) {
+            String filename = UUID.randomUUID() + extension;
+            Path target = root().resolve(filename);
+            ensureDirectory(target.getParent());
+            // Moves the container's buffered part into place (a rename when both are on the same disk)
+            file.transferTo(target.toFile());
+            return new StoredImage(filename, URL_PREFIX + filename, file.getSize(), contentType, false);
+        }
+
+        // Hash the buffered part in one read, then hand it over by rename instead of copying it again
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String filename = HexFormat.of().formatHex(digest.digest()) + extension;
+        Path target = resolve(filename);
+
+        boolean deduplicated;
+        synchronized (lockFor(filename)) {
+            deduplicated = Files.exists(target);
+            if (!deduplicated) {
+                Path tempDir = root().resolve(TEMP_DIR);
+                ensureDirectory(tempDir);
+                Path temp = tempDir.resolve(UUID.randomUUID().toString());
+                try {
+                    file.transferTo(temp.toFile());
+                    ensureDirectory(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            addReference(filename, file.getSize(), contentType);
+        }
+        if (deduplicated) {
+            log.info("Upload deduplicated to existing blob {}", filename);
+        }
+        return new StoredImage(filename, URL_PREFIX + filename, file.getSize(), contentType, deduplicated);
+    }
+
+    // Takes ownership of a fully written file under the upload directory (e.g. an assembled chunked upload)
+    public StoredImage storeFile(Path source, String contentType, String originalFilename) throws IOException {
+        String extension = extensionFor(contentType, originalFilename);
+        long size = Files.size(source);
+        if (!contentAddressed) {
+            String filename = UUID.randomUUID() + extension;
+            Path target = root().resolve(filename);
+            ensureDirectory(target.getParent());
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredImage(filename, URL_PREFIX + filename, size, contentType, false);
+        }
+
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String filename = HexFormat.of().formatHex(digest.digest()) + extension;
+        Path target = resolve(filename);
+
+        boolean deduplicated;
+        synchronized (lockFor(filename)) {
+            deduplicated = Files.exists(target);
+            if (deduplicated) {
+                Files.deleteIfExists(source);
+            } else {
+                ensureDirectory(target.getParent());
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            addReference(filename, size, contentType);
+        }
+        return new StoredImage(filename, URL_PREFIX + filename, size, contentType, deduplicated);
+    }
+
+    // Scratch directory on the same disk as the store, so finished files can be moved in atomically
+    public Path tempDirectory(String name) throws IOException {
+        Path directory = root().resolve(TEMP_DIR).resolve(name);
+        ensureDirectory(directory);
+        return directory;
+    }
+
+    private void addReference(String filename, long size, String contentType) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(filename)),
+                new Update().inc("refCount", 1)
+                        .setOnInsert("size", size)
+                        .setOnInsert("contentType", contentType)
+                        .setOnInsert("createdAt", LocalDateTime.now()),
+                BLOB_COLLECTION);
+    }
+
+    // Path of a stored file, or null when the name would escape the upload directory
+    public Path resolve(String filename) {
+        Path root = root();
+        Path path = CONTENT_ADDRESSED_NAME.matcher(filename).matches()
+                ? root.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename)
+                : root.resolve(filename);
+        path = path.normalize();
+        return path.startsWith(root) ? path : null;
+    }
+
+    public boolean isContentAddressed(String filename) {
+        return CONTENT_ADDRESSED_NAME.matcher(filename).matches();
+    }
+
+    // Strong validator: the content hash (plus variant width) for content-addressed files, size and mtime for legacy ones
+    public String etagFor(String filename, BasicFileAttributes attributes) {
+        Matcher matcher = CONTENT_ADDRESSED_ETAG.matcher(filename);
+        if (matcher.matches()) {
+            return "\"" + matcher.group(1) + "\"";
+        }
+        return "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+    }
+
+    // MIME type by extension, probed once per extension instead of on every request
+    public MediaType mediaTypeFor(String filename) {
+        int dot = filename.lastIndexOf('.');
+        String extension = dot >= 0 ? filename.substring(dot).toLowerCase() : "";
+        return mediaTypesByExtension.computeIfAbsent(extension, ext -> MediaTypeFactory.getMediaType(filename)
+                .orElseGet(() -> probeMediaType(filename)));
+    }
+
+    private MediaType probeMediaType(String filename) {
+        try {
+            String probed = Files.probeContentType(Paths.get(filename));
+            return probed != null ? MediaType.parseMediaType(probed) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (Exception e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    public enum DeleteResult { NOT_FOUND, REFERENCE_RELEASED, DELETED }
+
+    public DeleteResult delete(String filename) throws IOException {
+        Path path = resolve(filename);
+        if (path == null || !Files.exists(path)) {
+            return DeleteResult.NOT_FOUND;
+        }
+        if (!isContentAddressed(filename)) {
+            Files.delete(path);
+            return DeleteResult.DELETED;
+        }
+
+        synchronized (lockFor(filename)) {
+            Document blob = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(filename).and("refCount").gt(0)),
+                    new Update().inc("refCount", -1),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Document.class, BLOB_COLLECTION);
+            if (blob != null && blob.getInteger("refCount", 0) > 0) {
+                return DeleteResult.REFERENCE_RELEASED;
+            }
+            // The lock above is per instance: another instance may have added a reference since our decrement, so
+            // the record is only removed while still unreferenced, and the file only when that removal happened
+            // (or the blob never had a record)
+            Document removed = mongoTemplate.findAndRemove(
+                    Query.query(Criteria.where("_id").is(filename).and("refCount").lte(0)),
+                    Document.class, BLOB_COLLECTION);
+            if (removed == null && mongoTemplate.exists(Query.query(Criteria.where("_id").is(filename)), BLOB_COLLECTION)) {
+                return DeleteResult.REFERENCE_RELEASED;
+            }
+            Files.deleteIfExists(path);
+            return DeleteResult.DELETED;
+        }
+    }
+
+    // Shard directories are created once per process instead of on every upload
+    private void ensureDirectory(Path directory) throws IOException {
+        if (!knownDirectories.contains(directory)) {
+            Files.createDirectories(directory);
+            knownDirectories.add(directory);
+        }
+    }
+
+    private Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    private Object lockFor(String filename) {
+        return blobLocks[Math.floorMod(filename.hashCode(), blobLocks.length)];
+    }
+
+    private static String extensionFor(String contentType, String originalFilename) {
+        String extension = contentType != null ? EXTENSIONS.get(contentType.toLowerCase()) : null;
+        if (extension != null) {
+            return extension;
+        }
+        if (originalFilename != null && originalFilename.contains(".")) {
+            String original = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase();
+            if (original.matches("\\.[a-z0-9]{1,10}")) {
+                return original;
+            }
+        }
+        return "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Object[] createLocks(int count) {
+        Object[] locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
@@ -0,0 +1,329 @@
+package com.esprit.microservice.productservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resized copies of product images (e.g. &lt;hash&gt;_w320.jpg), stored next to the original. Variants for every
+ * configured width are queued on a small bounded pool after upload, decoding the original once; a request for a
+ * missing variant queues it on the same pool and waits up to lazy-timeout-ms, and concurrent requests for the same
+ * variant share one resize. Originals above max-pixels are never decoded.
+ * Formats ImageIO cannot decode (webp, avif, svg) are served as the original.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    // Source extension -> variant format; PNG keeps transparency, everything else is re-encoded as JPEG
+    private static final Map<String, String> VARIANT_FORMATS = Map.of(
+            ".jpg", "jpg",
+            ".jpeg", "jpg",
+            ".bmp", "jpg",
+            ".png", "png",
+            ".gif", "png"
+    );
+
+    private final ImageStorageService imageStorageService;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long lazyTimeoutMs;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    // Single-flight: one resize per variant path at a time, later callers join the running one
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageVariantService(ImageStorageService imageStorageService,
+                               @Value("${file.variants.widths:160,320,640,1024}") int[] widths,
+                               @Value("${file.variants.jpeg-quality:0.82}") float jpegQuality,
+                               @Value("${file.variants.workers:2}") int workers,
+                               @Value("${file.variants.queue-capacity:200}") int queueCapacity,
+                               @Value("${file.variants.lazy-timeout-ms:10000}") long lazyTimeoutMs,
+                               @Value("${file.variants.max-pixels:40000000}") long maxPixels) {
+        this.imageStorageService = imageStorageService;
+        this.widths = Arrays.stream(widths).filter(w -> w > 0).sorted().distinct().toArray();
+        this.jpegQuality = jpegQuality;
+        this.lazyTimeoutMs = lazyTimeoutMs;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Full queue: execute() throws, eager jobs are deferred to lazy generation and lazy callers get the original
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean supports(String filename) {
+        return variantFormat(filename) != null;
+    }
+
+    // Queues every configured width for a freshly uploaded image; the original is decoded once for all of them
+    public void generateAsync(String filename) {
+        if (!supports(filename) || widths.length == 0) {
+            return;
+        }
+        try {
+            executor.execute(() -> generateAll(filename));
+        } catch (RejectedExecutionException e) {
+            log.warn("Image variant queue full, deferring {} to lazy generation", filename);
+        }
+    }
+
+    /**
+     * Path of the variant closest to the requested width (the smallest configured width that is at least as wide,
+     * or the widest one), generating it if needed. Returns null when the original should be served instead.
+     */
+    public Path variantFor(String filename, int requestedWidth) {
+        if (!supports(filename) || widths.length == 0 || requestedWidth <= 0) {
+            return null;
+        }
+        int width = snapWidth(requestedWidth);
+        Path variant = variantPath(filename, width);
+        if (variant == null) {
+            return null;
+        }
+        if (Files.isRegularFile(variant)) {
+            return variant;
+        }
+        try {
+            return resolveVariant(filename, width).get(lazyTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for {}px variant of {}, serving original", width, filename);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.warn("Failed to generate {}px variant of {}: {}", width, filename, e.getMessage());
+            return null;
+        }
+    }
+
+    // Variant file name as served to clients, e.g. abc..._w320.jpg
+    public String variantName(String filename, int width) {
+        int dot = filename.lastIndexOf('.');
+        String stem = dot >= 0 ? filename.substring(0, dot) : filename;
+        return stem + "_w" + width + "." + variantFormat(filename);
+    }
+
+    public int snapWidth(int requestedWidth) {
+        for (int width : widths) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    // Removes all variants once the original blob itself is gone
+    public void deleteVariants(String filename) {
+        if (!supports(filename)) {
+            return;
+        }
+        for (int width : widths) {
+            Path variant = variantPath(filename, width);
+            try {
+                if (variant != null) {
+                    Files.deleteIfExists(variant);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete variant {}: {}", variant, e.getMessage());
+            }
+        }
+    }
+
+    private CompletableFuture<Path> resolveVariant(String filename, int width) {
+        Path variant = variantPath(filename, width);
+        if (variant == null) {
+            return CompletableFuture.failedFuture(new IOException("Invalid image name: " + filename));
+        }
+        if (Files.isRegularFile(variant)) {
+            return CompletableFuture.completedFuture(variant);
+        }
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(variant, created);
+        if (running != null) {
+            return running;
+        }
+        // Resizes run on the bounded pool, never on the request thread: a caller that times out stops waiting
+        // but the resize still completes for the next request
+        try {
+            executor.execute(() -> {
+                try {
+                    // Another resize may have finished between the caller's check and our registration
+                    created.complete(Files.isRegularFile(variant)
+                            ? variant
+                            : generate(readSource(filename), filename, width, variant));
+                } catch (Exception e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(variant, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(variant, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    // Eager job: every missing width from one decode; widths another caller is already resizing are skipped
+    private void generateAll(String filename) {
+        BufferedImage source = null;
+        for (int width : widths) {
+            Path variant = variantPath(filename, width);
+            if (variant == null || Files.isRegularFile(variant)) {
+                continue;
+            }
+            CompletableFuture<Path> created = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(variant, created) != null) {
+                continue;
+            }
+            try {
+                if (source == null) {
+                    source = readSource(filename);
+                }
+                created.complete(generate(source, filename, width, variant));
+            } catch (Exception e) {
+                created.completeExceptionally(e);
+                log.warn("Failed to generate {}px variant of {}: {}", width, filename, e.getMessage());
+                return;
+            } finally {
+                inFlight.remove(variant, created);
+            }
+        }
+    }
+
+    // Reads the dimensions from the header first, so oversized images (or decompression bombs) are never decoded
+    private BufferedImage readSource(String filename) throws IOException {
+        Path original = imageStorageService.resolve(filename);
+        if (original == null || !Files.isRegularFile(original)) {
+            throw new IOException("Original image not found: " + filename);
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image encoding: " + filename);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image too large to resize (" + reader.getWidth(0) + "x" + reader.getHeight(0)
+                            + "): " + filename);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Path generate(BufferedImage source, String filename, int width, Path variant) throws IOException {
+        String format = variantFormat(filename);
+        BufferedImage resized = resize(source, Math.min(width, source.getWidth()), format);
+        // Write to a temp file and move it into place so readers never see a half-written variant
+        Path temp = variant.resolveSibling(variant.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            write(resized, format, temp);
+            Files.move(temp, variant, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.debug("Generated {}px variant of {}", width, filename);
+        return variant;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, String format) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        boolean alpha = "png".equals(format);
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            if (!alpha) {
+                // JPEG has no alpha channel: flatten transparent sources onto white
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        if (!"jpg".equals(format)) {
+            if (!ImageIO.write(image, format, target.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            return;
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No ImageIO writer for jpeg");
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Path variantPath(String filename, int width) {
+        Path original = imageStorageService.resolve(filename);
+        return original != null ? original.resolveSibling(variantName(filename, width)) : null;
+    }
+
+    private static String variantFormat(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 ? VARIANT_FORMATS.get(filename.substring(dot).toLowerCase()) : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
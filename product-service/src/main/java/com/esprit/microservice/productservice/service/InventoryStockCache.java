@@ -0,0 +1,226 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.client.InventoryClient;
+import com.esprit.microservice.productservice.dto.InventoryResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate stock cache in front of InventoryClient. Fresh entries are served as is; stale entries
+ * are served immediately while one background call refreshes them; only SKUs never seen before wait for
+ * inventory-service. Calls go through a bulkhead and a circuit breaker, so during an inventory incident reads keep
+ * returning the last known stock (or null for unknown SKUs) without waiting on timeouts.
+ */
+@Component
+@Slf4j
+public class InventoryStockCache {
+
+    private record StockEntry(boolean inStock, long fetchedAt) {
+    }
+
+    private final InventoryClient inventoryClient;
+    private final Cache<String, StockEntry> stockBySku;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ThreadPoolExecutor refreshExecutor;
+    // SKUs with a background refresh in flight, so concurrent readers do not queue duplicate calls
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final long freshForMillis;
+    private final int batchSize;
+
+    private final Counter freshHits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter rejectedCalls;
+    private final Timer servedStaleness;
+
+    public InventoryStockCache(InventoryClient inventoryClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.stock-cache.maximum-size:50000}") long maximumSize,
+                               @Value("${inventory.stock-cache.fresh-for:30s}") Duration freshFor,
+                               @Value("${inventory.stock-cache.max-stale:30m}") Duration maxStale,
+                               @Value("${inventory.check-stock.batch-size:200}") int batchSize,
+                               @Value("${inventory.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                               @Value("${inventory.circuit-breaker.slow-call-threshold:800ms}") Duration slowCallThreshold,
+                               @Value("${inventory.circuit-breaker.open-duration:10s}") Duration openDuration,
+                               @Value("${inventory.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls) {
+        this.inventoryClient = inventoryClient;
+        this.freshForMillis = freshFor.toMillis();
+        // A zero or negative batch size would never advance the batching loops
+        this.batchSize = Math.max(1, batchSize);
+        this.stockBySku = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxStale)
+                .recordStats()
+                .build();
+        this.circuitBreaker = CircuitBreaker.of("inventory-service", CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slowCallRateThreshold(80)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build());
+        // Fail fast instead of queueing request threads behind a slow inventory-service
+        this.bulkhead = Bulkhead.of("inventory-service", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "inventory-stock-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, stockBySku, "inventory.stock");
+        Gauge.builder("inventory.circuit.state", circuitBreaker, breaker -> stateValue(breaker.getState()))
+                .description("inventory-service circuit breaker: 0 closed, 1 open, 2 half-open, 3 disabled/forced")
+                .register(meterRegistry);
+        Gauge.builder("inventory.circuit.failure.rate", circuitBreaker, breaker -> breaker.getMetrics().getFailureRate())
+                .register(meterRegistry);
+        Gauge.builder("inventory.bulkhead.available", bulkhead, b -> b.getMetrics().getAvailableConcurrentCalls())
+                .register(meterRegistry);
+        this.freshHits = Counter.builder("inventory.stock.lookups").tag("result", "fresh").register(meterRegistry);
+        this.staleHits = Counter.builder("inventory.stock.lookups").tag("result", "stale").register(meterRegistry);
+        this.misses = Counter.builder("inventory.stock.lookups").tag("result", "miss").register(meterRegistry);
+        this.rejectedCalls = Counter.builder("inventory.calls.rejected")
+                .description("Calls short-circuited by the open breaker or a full bulkhead")
+                .register(meterRegistry);
+        this.servedStaleness = Timer.builder("inventory.stock.staleness")
+                .description("Age of stale stock values served while a refresh runs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stock per SKU: true/false from inventory-service (possibly stale), false for SKUs inventory does not know,
+     * null when the stock has never been fetched and inventory-service cannot be reached right now.
+     */
+    public Map<String, Boolean> getStock(List<String> skuCodes) {
+        Map<String, Boolean> stock = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String skuCode : skuCodes) {
+            StockEntry entry = stockBySku.getIfPresent(skuCode);
+            if (entry == null) {
+                missing.add(skuCode);
+                misses.increment();
+                continue;
+            }
+            stock.put(skuCode, entry.inStock());
+            long age = now - entry.fetchedAt();
+            if (age <= freshForMillis) {
+                freshHits.increment();
+            } else {
+                staleHits.increment();
+                servedStaleness.record(age, TimeUnit.MILLISECONDS);
+                if (refreshing.add(skuCode)) {
+                    stale.add(skuCode);
+                }
+            }
+        }
+
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<String> chunk = missing.subList(from, Math.min(from + batchSize, missing.size()));
+            Map<String, Boolean> fetched = fetch(chunk);
+            chunk.forEach(skuCode -> stock.put(skuCode, fetched != null ? fetched.get(skuCode) : null));
+        }
+        if (!stale.isEmpty()) {
+            refreshAsync(stale);
+        }
+        return stock;
+    }
+
+    public void evict(String skuCode) {
+        if (skuCode != null) {
+            stockBySku.invalidate(skuCode);
+        }
+    }
+
+    private void refreshAsync(List<String> skuCodes) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    for (int from = 0; from < skuCodes.size(); from += batchSize) {
+                        fetch(skuCodes.subList(from, Math.min(from + batchSize, skuCodes.size())));
+                    }
+                } finally {
+                    skuCodes.forEach(refreshing::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Refresh backlog full: keep serving the stale values, a later read retries
+            skuCodes.forEach(refreshing::remove);
+        }
+    }
+
+    // One guarded inventory call; caches and returns the result, or null when the call failed or was not permitted
+    private Map<String, Boolean> fetch(List<String> skuCodes) {
+        Supplier<List<InventoryResponse>> call = Bulkhead.decorateSupplier(bulkhead,
+                CircuitBreaker.decorateSupplier(circuitBreaker, () -> inventoryClient.checkStock(skuCodes)));
+        try {
+            Map<String, Boolean> fetched = new HashMap<>();
+            skuCodes.forEach(skuCode -> fetched.put(skuCode, false));
+            for (InventoryResponse response : call.get()) {
+                fetched.put(response.getSkuCode(), response.hasStock());
+            }
+            long now = System.currentTimeMillis();
+            fetched.forEach((skuCode, inStock) -> stockBySku.put(skuCode, new StockEntry(inStock, now)));
+            return fetched;
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            rejectedCalls.increment();
+            log.debug("Inventory call for {} skuCodes short-circuited: {}", skuCodes.size(), e.getMessage());
+            return null;
+        } catch (Exception e) {
+            log.error("Error checking inventory for {} skuCodes: {}", skuCodes.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static int stateValue(CircuitBreaker.State state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case OPEN -> 1;
+            case HALF_OPEN -> 2;
+            default -> 3;
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,196 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.client.InventorySnapshotClient;
+import com.esprit.microservice.productservice.dto.InventoryResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local skuCode -> quantity view of inventory-service, loaded from a full snapshot and then kept current from
+ * inventory-created-topic and inventory-updated-topic. Once the snapshot has loaded, catalog reads resolve stock
+ * here without calling inventory-service; SKUs the projection cannot vouch for are left to InventoryStockCache.
+ * inventory-service publishes no delete event and INCREASE/DECREASE events carry deltas, so a periodic resync
+ * replaces the snapshot to correct any drift.
+ */
+@Component
+@Slf4j
+public class InventoryStockProjection {
+
+    private record StockLevel(int quantity, long updatedAt) {
+    }
+
+    private final InventorySnapshotClient snapshotClient;
+    private final boolean enabled;
+    private final long resyncIntervalMillis;
+    private final Map<String, StockLevel> levels = new ConcurrentHashMap<>();
+    // SKUs whose quantity is unknown (a delta arrived without a base value); reads fall back until the next snapshot
+    private final Set<String> unresolved = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+    private volatile long lastSnapshotAt;
+    private volatile long lastEventAt;
+
+    private final Counter hits;
+    private final Counter absent;
+    private final Counter fallbacks;
+    private final Timer eventLag;
+
+    public InventoryStockProjection(InventorySnapshotClient snapshotClient,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${inventory.projection.enabled:true}") boolean enabled,
+                                    @Value("${inventory.projection.resync-interval:15m}") Duration resyncInterval) {
+        this.snapshotClient = snapshotClient;
+        this.enabled = enabled;
+        this.resyncIntervalMillis = resyncInterval.toMillis();
+
+        Gauge.builder("inventory.projection.size", levels, Map::size).register(meterRegistry);
+        Gauge.builder("inventory.projection.ready", this, projection -> projection.ready ? 1 : 0).register(meterRegistry);
+        Gauge.builder("inventory.projection.snapshot.age", this, projection -> ageSeconds(projection.lastSnapshotAt))
+                .description("Seconds since the last full inventory snapshot was applied")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("inventory.projection.event.age", this, projection -> ageSeconds(projection.lastEventAt))
+                .description("Seconds since the last inventory event was applied")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.eventLag = Timer.builder("inventory.projection.event.lag")
+                .description("Delay between inventory-service publishing a stock change and this instance applying it")
+                .register(meterRegistry);
+        this.hits = Counter.builder("inventory.projection.lookups").tag("result", "hit").register(meterRegistry);
+        this.absent = Counter.builder("inventory.projection.lookups").tag("result", "absent").register(meterRegistry);
+        this.fallbacks = Counter.builder("inventory.projection.lookups").tag("result", "fallback").register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Stock for the SKUs the projection can answer: true/false from the projected quantity. SKUs it does not hold
+     * are left out, like unresolved ones: inventory-service creates rows for new products without publishing an
+     * event, so absence here does not mean inventory does not know them. SKUs missing from the returned map must be
+     * resolved elsewhere.
+     */
+    public Map<String, Boolean> getStock(List<String> skuCodes) {
+        Map<String, Boolean> stock = new HashMap<>();
+        if (!ready) {
+            return stock;
+        }
+        for (String skuCode : skuCodes) {
+            if (unresolved.contains(skuCode)) {
+                fallbacks.increment();
+                continue;
+            }
+            StockLevel level = levels.get(skuCode);
+            if (level != null) {
+                hits.increment();
+                stock.put(skuCode, level.quantity() > 0);
+            } else {
+                absent.increment();
+            }
+        }
+        return stock;
+    }
+
+    // Projected stock of one SKU for counting (facets), null when the projection cannot answer; not a lookup metric
+    public Boolean peekStock(String skuCode) {
+        if (!ready || skuCode == null || unresolved.contains(skuCode)) {
+            return null;
+        }
+        StockLevel level = levels.get(skuCode);
+        return level != null ? level.quantity() > 0 : null;
+    }
+
+    // InventoryCreatedEvent and InventoryUpdatedEvent with action UPDATE carry the new absolute quantity, and so do
+    // product created/updated events, which inventory-service applies without publishing an inventory event.
+    // Returns whether the SKU may have moved between in and out of stock.
+    public boolean applyQuantity(String skuCode, int quantity, long publishedAt) {
+        StockLevel previous = levels.put(skuCode, new StockLevel(quantity, System.currentTimeMillis()));
+        boolean wasUnresolved = unresolved.remove(skuCode);
+        recordEvent(publishedAt);
+        return previous == null || wasUnresolved || (previous.quantity() > 0) != (quantity > 0);
+    }
+
+    // INCREASE/DECREASE events carry the change, which only makes sense on top of a known quantity
+    public boolean applyDelta(String skuCode, int delta, long publishedAt) {
+        boolean[] crossed = new boolean[1];
+        StockLevel updated = levels.computeIfPresent(skuCode, (key, level) -> {
+            crossed[0] = (level.quantity() > 0) != (level.quantity() + delta > 0);
+            return new StockLevel(level.quantity() + delta, System.currentTimeMillis());
+        });
+        if (updated == null) {
+            crossed[0] = unresolved.add(skuCode);
+        }
+        recordEvent(publishedAt);
+        return crossed[0];
+    }
+
+    // Startup load, retried until it succeeds, then a full resync once per resync interval
+    @Scheduled(fixedDelayString = "${inventory.projection.check-interval-ms:30000}")
+    public void resyncIfDue() {
+        if (enabled && (!ready || System.currentTimeMillis() - lastSnapshotAt >= resyncIntervalMillis)) {
+            resync();
+        }
+    }
+
+    public void resync() {
+        long startedAt = System.currentTimeMillis();
+        List<InventoryResponse> snapshot;
+        try {
+            snapshot = snapshotClient.getAllInventory();
+        } catch (Exception e) {
+            log.warn("Inventory snapshot failed, stock reads keep using {}: {}",
+                    ready ? "the previous snapshot" : "inventory-service", e.getMessage());
+            return;
+        }
+
+        // Entries written by events after the snapshot started are newer than the snapshot's copy
+        Set<String> skuCodes = new HashSet<>();
+        for (InventoryResponse response : snapshot) {
+            Integer quantity = response.getAvailableQuantity();
+            if (response.getSkuCode() == null || quantity == null) {
+                continue;
+            }
+            skuCodes.add(response.getSkuCode());
+            levels.compute(response.getSkuCode(), (key, level) ->
+                    level != null && level.updatedAt() >= startedAt ? level : new StockLevel(quantity, startedAt));
+        }
+        // Inventory rows deleted since the last snapshot
+        levels.entrySet().removeIf(entry -> entry.getValue().updatedAt() < startedAt && !skuCodes.contains(entry.getKey()));
+        unresolved.clear();
+
+        lastSnapshotAt = startedAt;
+        if (!ready) {
+            ready = true;
+            log.info("Inventory stock projection loaded with {} skuCodes", levels.size());
+        } else {
+            log.debug("Inventory stock projection resynced with {} skuCodes", levels.size());
+        }
+    }
+
+    private void recordEvent(long publishedAt) {
+        long now = System.currentTimeMillis();
+        lastEventAt = now;
+        if (publishedAt > 0) {
+            eventLag.record(Math.max(0, now - publishedAt), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static double ageSeconds(long since) {
+        return since > 0 ? (System.currentTimeMillis() - since) / 1000.0 : Double.NaN;
+    }
+}
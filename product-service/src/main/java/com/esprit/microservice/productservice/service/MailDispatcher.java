@@ -0,0 +1,132 @@
+package com.esprit.microservice.productservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends notification mails off the request path with a fixed number of workers and a bounded queue. Each worker
+ * drains whatever is queued (up to batch-size) and sends it over one SMTP connection, so a burst of product
+ * creations costs a few connections instead of one per mail. When the queue is full the mail is dropped and
+ * counted rather than blocking the caller or growing threads.
+ */
+@Component
+@Slf4j
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<MimeMessage> queue;
+    private final int batchSize;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Timer sendTimer;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          MeterRegistry meterRegistry,
+                          @Value("${mail.dispatch.workers:2}") int workerCount,
+                          @Value("${mail.dispatch.queue-capacity:500}") int queueCapacity,
+                          @Value("${mail.dispatch.batch-size:20}") int batchSize) {
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        Gauge.builder("mail.queue.size", queue, BlockingQueue::size)
+                .description("Mails waiting for an SMTP worker")
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.send.failures").register(meterRegistry);
+        this.rejected = Counter.builder("mail.rejected").description("Mails dropped because the queue was full").register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send").description("One SMTP connection sending a batch of mails").register(meterRegistry);
+
+        for (int i = 1; i <= workerCount; i++) {
+            Thread worker = new Thread(this::drain, "mail-dispatch-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    // Never blocks: false when the queue is full and the mail was dropped
+    public boolean dispatch(MimeMessage message) {
+        if (queue.offer(message)) {
+            return true;
+        }
+        rejected.increment();
+        log.warn("Mail queue full ({} pending), dropping notification", queue.size());
+        return false;
+    }
+
+    private void drain() {
+        List<MimeMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                MimeMessage first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    queue.drainTo(batch);
+                    send(batch);
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<MimeMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            // JavaMailSenderImpl sends all messages of one call over a single connection
+            mailSender.send(batch.toArray(MimeMessage[]::new));
+            sent.increment(batch.size());
+        } catch (MailSendException e) {
+            int failures = e.getFailedMessages().isEmpty() ? batch.size() : e.getFailedMessages().size();
+            failed.increment(failures);
+            sent.increment(batch.size() - failures);
+            log.error("Failed to send {} of {} notification mails: {}", failures, batch.size(), e.getMessage());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.error("Failed to send {} notification mails: {}", batch.size(), e.getMessage());
+        } finally {
+            sample.stop(sendTimer);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.esprit.microservice.productservice.service;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// HTML mail template split into literal and {{placeholder}} segments once, so rendering is a single append pass
+final class MailTemplate {
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private MailTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    static MailTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = template.indexOf("{{", position);
+            int close = open < 0 ? -1 : template.indexOf("}}", open + 2);
+            if (close < 0) {
+                literals.add(template.substring(position));
+                break;
+            }
+            literals.add(template.substring(position, open));
+            placeholders.add(template.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        return new MailTemplate(literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    // Values are HTML-escaped; a missing value renders as an empty string
+    String render(Map<String, ?> values) {
+        StringBuilder html = new StringBuilder(literalLength + 64 * placeholders.length);
+        for (int i = 0; i < placeholders.length; i++) {
+            html.append(literals[i]);
+            Object value = values.get(placeholders[i]);
+            if (value != null) {
+                html.append(HtmlUtils.htmlEscape(value.toString()));
+            }
+        }
+        return html.append(literals[literals.length - 1]).toString();
+    }
+}
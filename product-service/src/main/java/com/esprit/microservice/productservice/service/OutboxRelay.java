@@ -0,0 +1,196 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.model.OutboxEvent;
+import com.esprit.microservice.productservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes pending product_outbox events to Kafka in insertion order, in batches, off the request path.
+ * Only the instance holding the relay lease publishes, so scaled-out instances do not double-send.
+ * Delivery is at-least-once: a failed send stops the batch and everything from it onwards is retried, after an
+ * exponential backoff. An event that still fails after max-attempts is marked FAILED (dead-lettered) so it no longer
+ * blocks the events behind it.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String LEASE_COLLECTION = "product_outbox_lease";
+    private static final String LEASE_ID = "relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final Counter publishedEvents;
+    private final Counter failedSends;
+    private final Counter deadLetteredEvents;
+    private final Timer batchTimer;
+
+    @Value("${product.outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${product.outbox.relay.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    @Value("${product.outbox.relay.lease:30s}")
+    private Duration lease;
+
+    @Value("${product.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${product.outbox.relay.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${product.outbox.relay.max-backoff:1m}")
+    private Duration maxBackoff;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       MongoTemplate mongoTemplate,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.mongoTemplate = mongoTemplate;
+
+        Gauge.builder("product.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events not yet published to Kafka")
+                .register(meterRegistry);
+        TimeGauge.builder("product.outbox.lag", oldestPendingAgeMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox event")
+                .register(meterRegistry);
+        this.publishedEvents = Counter.builder("product.outbox.published").register(meterRegistry);
+        Gauge.builder("product.outbox.failed", failedEvents, AtomicLong::get)
+                .description("Outbox events given up after max-attempts failed sends")
+                .register(meterRegistry);
+        this.failedSends = Counter.builder("product.outbox.send.failures").register(meterRegistry);
+        this.deadLetteredEvents = Counter.builder("product.outbox.dead-lettered").register(meterRegistry);
+        this.batchTimer = Timer.builder("product.outbox.batch").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.relay.interval-ms:500}")
+    public void relay() {
+        try {
+            if (!acquireLease()) {
+                return;
+            }
+            List<OutboxEvent> batch = outboxEventRepository.findByStatusOrderByIdAsc(OutboxEvent.PENDING, PageRequest.of(0, batchSize));
+            // The head event is backing off after a failed send: nothing behind it may go first
+            boolean backingOff = !batch.isEmpty() && batch.get(0).getNextAttemptAt() != null
+                    && batch.get(0).getNextAttemptAt().isAfter(LocalDateTime.now());
+            if (!batch.isEmpty() && !backingOff) {
+                batchTimer.record(() -> publish(batch));
+            }
+            refreshLag();
+        } catch (Exception e) {
+            log.error("Outbox relay cycle failed: {}", e.getMessage());
+        }
+    }
+
+    private void publish(List<OutboxEvent> batch) {
+        // Send the whole batch before waiting so the producer can group records per partition
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            try {
+                sends.add(kafkaTemplate.send(event.getTopic(), event.getKey(), event.getPayload()));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+                break;
+            }
+        }
+
+        List<String> sentIds = new ArrayList<>();
+        for (int i = 0; i < sends.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                sends.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                sentIds.add(event.getId());
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                // Stop at the first failure so later events are never published ahead of this one
+                failedSends.increment();
+                recordFailure(event, e);
+                break;
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(sentIds)),
+                    new Update().set("status", OutboxEvent.SENT).set("sentAt", LocalDateTime.now()).inc("attempts", 1),
+                    OutboxEvent.class);
+            publishedEvents.increment(sentIds.size());
+        }
+    }
+
+    // Backs the event off exponentially, or dead-letters it once it has used up max-attempts
+    private void recordFailure(OutboxEvent event, Exception e) {
+        int attempts = (event.getAttempts() != null ? event.getAttempts() : 0) + 1;
+        Update update = new Update().set("attempts", attempts).set("lastError", String.valueOf(e.getMessage()));
+        if (attempts >= maxAttempts) {
+            update.set("status", OutboxEvent.FAILED).unset("nextAttemptAt");
+            deadLetteredEvents.increment();
+            log.error("Giving up on outbox event {} to {} after {} attempts, marked {}: {}",
+                    event.getId(), event.getTopic(), attempts, OutboxEvent.FAILED, e.getMessage());
+        } else {
+            long backoffMillis = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempts - 1, 20));
+            update.set("nextAttemptAt", LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+            log.warn("Failed to publish outbox event {} to {} (attempt {}), retrying in {} ms: {}",
+                    event.getId(), event.getTopic(), attempts, backoffMillis, e.getMessage());
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(event.getId())), update, OutboxEvent.class);
+    }
+
+    private void refreshLag() {
+        failedEvents.set(outboxEventRepository.countByStatus(OutboxEvent.FAILED));
+        pendingEvents.set(outboxEventRepository.countByStatus(OutboxEvent.PENDING));
+        oldestPendingAgeMillis.set(outboxEventRepository.findFirstByStatusOrderByIdAsc(OutboxEvent.PENDING)
+                .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+
+    // Takes or renews the single relay lease; fails with a duplicate key while another live instance holds it
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(instanceId), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update().set("owner", instanceId).set("expiresAt", now.plus(lease));
+        try {
+            mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true), org.bson.Document.class, LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.dto.ProductBulkUpdateReport;
+import com.esprit.microservice.productservice.dto.ProductBulkUpdateRequest;
+import com.esprit.microservice.productservice.dto.ProductImportReport;
+import com.esprit.microservice.productservice.event.ProductUpdatedEvent;
+import com.esprit.microservice.productservice.model.Product;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Partial price/stock updates keyed by skuCode, e.g. from the ERP feed. Each batch costs one $in read and one
+ * unordered bulkWrite that $sets only the fields that actually changed; rows that match the catalog already are
+ * skipped and emit nothing. Change events for a batch are recorded with one outbox insert.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBulkUpdateService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductEventOutbox productEventOutbox;
+    private final ProductCache productCache;
+    private final ProductCatalogIndex productCatalogIndex;
+
+    @Value("${product.bulk-update.batch-size:500}")
+    private int batchSize;
+
+    public ProductBulkUpdateReport updatePricesAndStock(List<ProductBulkUpdateRequest> updates, String sellerId) {
+        ProductBulkUpdateReport report = ProductBulkUpdateReport.builder()
+                .received(updates.size())
+                .errors(new ArrayList<>())
+                .build();
+        Set<String> seen = new HashSet<>();
+        for (int start = 0; start < updates.size(); start += batchSize) {
+            applyBatch(updates, start, Math.min(start + batchSize, updates.size()), sellerId, seen, report);
+        }
+        log.info("Bulk update by seller {}: {} rows, {} updated, {} unchanged, {} failed",
+                sellerId, report.getReceived(), report.getUpdated(), report.getUnchanged(), report.getFailed());
+        return report;
+    }
+
+    private void applyBatch(List<ProductBulkUpdateRequest> updates, int from, int to, String sellerId,
+                            Set<String> seen, ProductBulkUpdateReport report) {
+        Set<String> skuCodes = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            if (updates.get(i).getSkuCode() != null) {
+                skuCodes.add(updates.get(i).getSkuCode());
+            }
+        }
+        Query currentQuery = Query.query(Criteria.where("skuCode").in(skuCodes));
+        currentQuery.fields().include("skuCode", "name", "price", "stockQuantity", "sellerId");
+        Map<String, Product> current = new HashMap<>();
+        mongoTemplate.find(currentQuery, Product.class).forEach(product -> current.put(product.getSkuCode(), product));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        List<Integer> writtenRows = new ArrayList<>();
+        List<Product> written = new ArrayList<>();
+        List<Boolean> stockChanges = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = from; i < to; i++) {
+            ProductBulkUpdateRequest update = updates.get(i);
+            int row = i + 1;
+            String error = validate(update);
+            if (error == null && !seen.add(update.getSkuCode())) {
+                error = "Duplicate skuCode in request: " + update.getSkuCode();
+            }
+            Product product = error == null ? current.get(update.getSkuCode()) : null;
+            if (error == null && product == null) {
+                error = "Product not found with skuCode: " + update.getSkuCode();
+            }
+            if (error == null && sellerId != null && !sellerId.equals(product.getSellerId())) {
+                error = "Product " + update.getSkuCode() + " belongs to another seller";
+            }
+            if (error != null) {
+                reject(report, row, update.getSkuCode(), error);
+                continue;
+            }
+
+            // $set only what differs; a row matching the catalog costs nothing downstream
+            Update set = new Update();
+            boolean priceChanged = update.getPrice() != null
+                    && (product.getPrice() == null || update.getPrice().compareTo(product.getPrice()) != 0);
+            boolean stockChanged = update.getStockQuantity() != null
+                    && !Objects.equals(update.getStockQuantity(), product.getStockQuantity());
+            if (priceChanged) {
+                set.set("price", update.getPrice());
+                product.setPrice(update.getPrice());
+            }
+            if (stockChanged) {
+                set.set("stockQuantity", update.getStockQuantity());
+                product.setStockQuantity(update.getStockQuantity());
+            }
+            if (!priceChanged && !stockChanged) {
+                report.setUnchanged(report.getUnchanged() + 1);
+                continue;
+            }
+            set.set("updatedAt", now);
+            bulk.updateOne(Query.query(Criteria.where("_id").is(product.getId())), set);
+            writtenRows.add(row);
+            written.add(product);
+            stockChanges.add(stockChanged);
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                reject(report, writtenRows.get(error.getIndex()), written.get(error.getIndex()).getSkuCode(), error.getMessage());
+            }
+        }
+
+        Map<String, ProductUpdatedEvent> events = new LinkedHashMap<>();
+        for (int i = 0; i < written.size(); i++) {
+            if (failedIndexes.contains(i)) {
+                continue;
+            }
+            Product product = written.get(i);
+            productCache.evict(product.getId(), product.getSkuCode());
+            productCatalogIndex.updatePriceAndStock(product.getId(), product.getPrice(), product.getStockQuantity());
+            // quantity stays null for price-only changes so inventory-service does not rewrite the stock row
+            events.put(product.getSkuCode(), ProductUpdatedEvent.builder()
+                    .productId(product.getId())
+                    .skuCode(product.getSkuCode())
+                    .name(product.getName())
+                    .quantity(stockChanges.get(i) ? product.getStockQuantity() : null)
+                    .action("UPDATE")
+                    .build());
+        }
+        productEventOutbox.appendAll("product-updated-topic", events);
+        report.setUpdated(report.getUpdated() + events.size());
+    }
+
+    private static String validate(ProductBulkUpdateRequest update) {
+        if (update.getSkuCode() == null || update.getSkuCode().isBlank()) {
+            return "skuCode is required";
+        }
+        if (update.getPrice() == null && update.getStockQuantity() == null) {
+            return "price or stockQuantity is required";
+        }
+        if (update.getPrice() != null && update.getPrice().signum() < 0) {
+            return "price must be zero or positive";
+        }
+        if (update.getStockQuantity() != null && update.getStockQuantity() < 0) {
+            return "stockQuantity must be zero or positive";
+        }
+        return null;
+    }
+
+    private static void reject(ProductBulkUpdateReport report, int row, String skuCode, String message) {
+        report.setFailed(report.getFailed() + 1);
+        report.getErrors().add(ProductImportReport.RowError.builder().row(row).skuCode(skuCode).message(message).build());
+    }
+}
@@ -0,0 +1,92 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.model.Product;
+import com.esprit.microservice.productservice.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Near-cache of product documents keyed by id and by skuCode.
+ * Only the Mongo document is cached: stock comes from the inventory projection (or InventoryStockCache) on every read.
+ * Entries are evicted locally on writes and on every instance through ProductEventListener.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final Cache<String, Product> productsById;
+    private final Cache<String, String> idsBySkuCode;
+
+    public ProductCache(ProductRepository productRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.ttl:10m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsBySkuCode = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productsById, "product.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsBySkuCode, "product.by-sku");
+    }
+
+    public Optional<Product> findById(String id) {
+        // A null load result is not cached, so unknown ids always reach Mongo
+        return Optional.ofNullable(productsById.get(id, key -> productRepository.findById(key).orElse(null)));
+    }
+
+    // Cached products plus one $in query for the misses; ids unknown to Mongo are absent from the result and not cached
+    public Map<String, Product> findAllById(Collection<String> ids) {
+        return productsById.getAll(ids, missing -> {
+            Map<String, Product> loaded = new HashMap<>();
+            productRepository.findAllById(List.copyOf(missing)).forEach(product -> loaded.put(product.getId(), product));
+            return loaded;
+        });
+    }
+
+    public Optional<Product> findBySkuCode(String skuCode) {
+        String id = idsBySkuCode.getIfPresent(skuCode);
+        if (id != null) {
+            Optional<Product> product = findById(id);
+            if (product.isPresent() && skuCode.equals(product.get().getSkuCode())) {
+                return product;
+            }
+            idsBySkuCode.invalidate(skuCode);
+        }
+        Optional<Product> product = productRepository.findBySkuCode(skuCode);
+        product.ifPresent(p -> {
+            productsById.put(p.getId(), p);
+            idsBySkuCode.put(skuCode, p.getId());
+        });
+        return product;
+    }
+
+    public void evict(String productId, String skuCode) {
+        if (productId != null) {
+            productsById.invalidate(productId);
+        }
+        if (skuCode != null) {
+            idsBySkuCode.invalidate(skuCode);
+        }
+        log.debug("Evicted product {} / skuCode {} from cache", productId, skuCode);
+    }
+}
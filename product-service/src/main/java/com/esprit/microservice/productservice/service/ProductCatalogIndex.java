@@ -0,0 +1,306 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Columnar in-process index over the fields admin filters scan: price (in cents), stockQuantity, active, category and
+ * seller. Each product owns one ordinal into primitive arrays, categories and sellers are dictionary-encoded to ints,
+ * and a scan is a tight loop over those arrays returning only the matching ids, so Mongo loads just those documents.
+ * Built from the product collection at startup and kept in sync on create, update and delete like ProductSearchIndex.
+ */
+@Component
+@Slf4j
+public class ProductCatalogIndex {
+
+    static final long NO_PRICE = Long.MIN_VALUE;
+    static final int NO_STOCK = Integer.MIN_VALUE;
+    private static final int NO_CODE = -1;
+    private static final int MIN_DELETED_BEFORE_COMPACTION = 1024;
+
+    /**
+     * Conjunction of optional conditions; null means "any". Prices are inclusive bounds in cents,
+     * {@code stockBelow} is exclusive like the low-stock endpoint.
+     */
+    public record Filter(Long minPriceCents, Long maxPriceCents, Integer stockBelow, Boolean active,
+                         String category, String sellerId) {
+
+        public static Filter priceBetween(BigDecimal min, BigDecimal max) {
+            return new Filter(toCents(min, RoundingMode.CEILING), toCents(max, RoundingMode.FLOOR), null, null, null, null);
+        }
+
+        public static Filter stockBelow(int threshold) {
+            return new Filter(null, null, threshold, null, null, null);
+        }
+
+        public static Filter active(boolean active) {
+            return new Filter(null, null, null, active, null, null);
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // ordinal -> product id, null once the product is removed
+    private String[] ids = new String[1024];
+    private long[] priceCents = new long[1024];
+    private int[] stock = new int[1024];
+    private int[] categoryCodes = new int[1024];
+    private int[] sellerCodes = new int[1024];
+    private final BitSet active = new BitSet();
+    private int size;
+    private int deletedCount;
+    private final Map<String, Integer> ordinalById = new HashMap<>();
+    // Dictionaries; categories are lower-cased because category filters are case-insensitive
+    private final Map<String, Integer> categoryDictionary = new HashMap<>();
+    private final Map<String, Integer> sellerDictionary = new HashMap<>();
+    private final Set<String> removedDuringBuild = new HashSet<>();
+    private boolean building;
+    private volatile boolean ready;
+
+    public ProductCatalogIndex(MongoTemplate mongoTemplate,
+                               @Value("${product.catalog-index.enabled:false}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            building = true;
+            removedDuringBuild.clear();
+        });
+        Query query = new Query();
+        query.fields().include("price", "stockQuantity", "active", "category", "sellerId");
+        long started = System.currentTimeMillis();
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            // Products written or removed by live updates while the build runs are newer than the cursor's copy
+            products.forEach(product -> withWriteLock(() -> {
+                if (!ordinalById.containsKey(product.getId()) && !removedDuringBuild.contains(product.getId())) {
+                    putLocked(product);
+                }
+            }));
+            ready = true;
+            log.info("Product catalog index built with {} products in {} ms", ordinalById.size(),
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to build product catalog index, filters keep using Mongo: {}", e.getMessage());
+        } finally {
+            withWriteLock(() -> {
+                building = false;
+                removedDuringBuild.clear();
+            });
+        }
+    }
+
+    public void index(Product product) {
+        if (!enabled || product.getId() == null) {
+            return;
+        }
+        withWriteLock(() -> putLocked(product));
+    }
+
+    // Bulk updates only load price and stock, so only those columns are overwritten
+    public void updatePriceAndStock(String productId, BigDecimal price, Integer stockQuantity) {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            Integer ordinal = ordinalById.get(productId);
+            if (ordinal != null) {
+                priceCents[ordinal] = toCents(price, RoundingMode.HALF_UP);
+                stock[ordinal] = stockQuantity != null ? stockQuantity : NO_STOCK;
+            }
+        });
+    }
+
+    public void remove(String productId) {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            removeLocked(productId);
+            if (building) {
+                removedDuringBuild.add(productId);
+            }
+        });
+    }
+
+    /**
+     * Ids of the products matching every condition of {@code filter}, in index order. A category or seller the
+     * dictionary has never seen matches nothing without scanning.
+     */
+    public List<String> findIds(Filter filter) {
+        lock.readLock().lock();
+        try {
+            int category = NO_CODE;
+            if (filter.category() != null) {
+                Integer code = categoryDictionary.get(filter.category().toLowerCase(Locale.ROOT));
+                if (code == null) {
+                    return List.of();
+                }
+                category = code;
+            }
+            int seller = NO_CODE;
+            if (filter.sellerId() != null) {
+                Integer code = sellerDictionary.get(filter.sellerId());
+                if (code == null) {
+                    return List.of();
+                }
+                seller = code;
+            }
+            boolean priceFiltered = filter.minPriceCents() != null || filter.maxPriceCents() != null;
+            long minPrice = filter.minPriceCents() != null ? filter.minPriceCents() : Long.MIN_VALUE + 1;
+            long maxPrice = filter.maxPriceCents() != null ? filter.maxPriceCents() : Long.MAX_VALUE;
+            boolean stockFiltered = filter.stockBelow() != null;
+            int stockBelow = stockFiltered ? filter.stockBelow() : 0;
+
+            List<String> matches = new ArrayList<>();
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                // Removed ordinals are inactive, unpriced and unstocked, but an unfiltered scan must still skip them
+                if (ids[ordinal] == null
+                        || (priceFiltered && (priceCents[ordinal] < minPrice || priceCents[ordinal] > maxPrice))
+                        || (stockFiltered && (stock[ordinal] == NO_STOCK || stock[ordinal] >= stockBelow))
+                        || (filter.active() != null && active.get(ordinal) != filter.active())
+                        || (category != NO_CODE && categoryCodes[ordinal] != category)
+                        || (seller != NO_CODE && sellerCodes[ordinal] != seller)) {
+                    continue;
+                }
+                matches.add(ids[ordinal]);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Updates overwrite the product's columns in place; new products take the next ordinal
+    private void putLocked(Product product) {
+        Integer existing = ordinalById.get(product.getId());
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+        } else {
+            ensureCapacity(size + 1);
+            ordinal = size++;
+            ids[ordinal] = product.getId();
+            ordinalById.put(product.getId(), ordinal);
+        }
+        priceCents[ordinal] = toCents(product.getPrice(), RoundingMode.HALF_UP);
+        stock[ordinal] = product.getStockQuantity() != null ? product.getStockQuantity() : NO_STOCK;
+        // Same semantics as the Mongo filter active == true: a missing flag is not active
+        active.set(ordinal, Boolean.TRUE.equals(product.getActive()));
+        categoryCodes[ordinal] = encode(categoryDictionary,
+                product.getCategory() != null ? product.getCategory().toLowerCase(Locale.ROOT) : null);
+        sellerCodes[ordinal] = encode(sellerDictionary, product.getSellerId());
+    }
+
+    private void removeLocked(String productId) {
+        Integer ordinal = ordinalById.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        ids[ordinal] = null;
+        active.clear(ordinal);
+        deletedCount++;
+        if (deletedCount >= MIN_DELETED_BEFORE_COMPACTION && deletedCount * 4 > size) {
+            compactLocked();
+        }
+    }
+
+    // Moves live ordinals down over removed ones; dictionaries keep their codes (they only grow)
+    private void compactLocked() {
+        int kept = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (ids[ordinal] == null) {
+                continue;
+            }
+            if (kept != ordinal) {
+                ids[kept] = ids[ordinal];
+                priceCents[kept] = priceCents[ordinal];
+                stock[kept] = stock[ordinal];
+                categoryCodes[kept] = categoryCodes[ordinal];
+                sellerCodes[kept] = sellerCodes[ordinal];
+                active.set(kept, active.get(ordinal));
+                ordinalById.put(ids[kept], kept);
+            }
+            kept++;
+        }
+        Arrays.fill(ids, kept, size, null);
+        active.clear(kept, size);
+        size = kept;
+        deletedCount = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        priceCents = Arrays.copyOf(priceCents, grown);
+        stock = Arrays.copyOf(stock, grown);
+        categoryCodes = Arrays.copyOf(categoryCodes, grown);
+        sellerCodes = Arrays.copyOf(sellerCodes, grown);
+    }
+
+    private static int encode(Map<String, Integer> dictionary, String value) {
+        return value != null ? dictionary.computeIfAbsent(value, key -> dictionary.size()) : NO_CODE;
+    }
+
+    static long toCents(BigDecimal price, RoundingMode rounding) {
+        return price != null ? price.movePointRight(2).setScale(0, rounding).longValue() : NO_PRICE;
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.esprit.microservice.productservice.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset continuation token: base64url("<sortValue>|<id>"), or base64url("<id>") when paging by _id only
+record ProductCursor(Object sortValue, String id) {
+
+    static final String ID = "_id";
+    static final String PRICE = "price";
+    static final String STOCK_QUANTITY = "stockQuantity";
+
+    String encode(String sortField) {
+        String raw = ID.equals(sortField) ? id : formatValue(sortValue) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor, String sortField) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (ID.equals(sortField)) {
+                return new ProductCursor(null, raw);
+            }
+            int separator = raw.lastIndexOf('|');
+            String value = raw.substring(0, separator);
+            return new ProductCursor(parseValue(value, sortField), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Relevance-ranked search results have no stable sort key, so their cursor is the offset of the next hit
+    static String encodeOffset(int offset) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("@" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int decodeOffset(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int offset = Integer.parseInt(raw.substring(raw.indexOf('@') + 1));
+            if (!raw.startsWith("@") || offset < 0) {
+                throw new IllegalArgumentException();
+            }
+            return offset;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    private static Object parseValue(String value, String sortField) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        return switch (sortField) {
+            case PRICE -> new BigDecimal(value);
+            case STOCK_QUANTITY -> Integer.valueOf(value);
+            default -> value;
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.model.OutboxEvent;
+import com.esprit.microservice.productservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Records product domain events in Mongo next to the product write; OutboxRelay publishes them to Kafka
+@Service
+@RequiredArgsConstructor
+public class ProductEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    public void append(String topic, String key, Object event) {
+        outboxEventRepository.insert(pending(topic, key, event));
+    }
+
+    // Bulk writers (import, bulk update) record all events of a batch with one insertMany
+    public void appendAll(String topic, Map<String, ?> eventsByKey) {
+        if (eventsByKey.isEmpty()) {
+            return;
+        }
+        List<OutboxEvent> events = new ArrayList<>(eventsByKey.size());
+        eventsByKey.forEach((key, event) -> events.add(pending(topic, key, event)));
+        outboxEventRepository.insert(events);
+    }
+
+    private static OutboxEvent pending(String topic, String key, Object event) {
+        return OutboxEvent.builder()
+                .topic(topic)
+                .key(key)
+                .payload(event)
+                .status(OutboxEvent.PENDING)
+                .attempts(0)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
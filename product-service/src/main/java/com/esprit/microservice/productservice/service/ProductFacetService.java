@@ -0,0 +1,255 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.config.MongoIndexConfig;
+import com.esprit.microservice.productservice.dto.ProductFacets;
+import com.esprit.microservice.productservice.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Filter-sidebar counts (category, price bucket, seller, in/out of stock) computed in one $facet aggregation.
+ * The leading $match carries the filters so it can use the collection's indexes; the facets then run over the
+ * matched documents only. In/out of stock follows the inventory stock projection, like the listings' inStock flag,
+ * once it has loaded: Product.stockQuantity is not decremented by orders. Results are cached per filter
+ * combination and dropped on every product event and whenever a SKU goes in or out of stock.
+ */
+@Service
+@Slf4j
+public class ProductFacetService {
+
+    private static final String NO_VALUE = "none";
+
+    // Filters that identify a cached result; category is case-insensitive like the category index
+    private record FacetQuery(String category, String sellerId, BigDecimal minPrice, BigDecimal maxPrice, Boolean active) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final InventoryStockProjection inventoryStockProjection;
+    private final Cache<FacetQuery, ProductFacets> facetsByQuery;
+    private final BigDecimal[] priceBoundaries;
+    private final int maxValues;
+
+    public ProductFacetService(MongoTemplate mongoTemplate,
+                               InventoryStockProjection inventoryStockProjection,
+                               MeterRegistry meterRegistry,
+                               @Value("${product.facets.price-boundaries:0,25,50,100,250,500,1000}") BigDecimal[] priceBoundaries,
+                               @Value("${product.facets.max-values:50}") int maxValues,
+                               @Value("${product.facets.cache.maximum-size:1000}") long maximumSize,
+                               @Value("${product.facets.cache.ttl:5m}") Duration ttl) {
+        this.mongoTemplate = mongoTemplate;
+        this.inventoryStockProjection = inventoryStockProjection;
+        this.priceBoundaries = Arrays.stream(priceBoundaries).sorted().distinct().toArray(BigDecimal[]::new);
+        this.maxValues = maxValues;
+        // The TTL only bounds staleness if an event is lost; invalidate() normally clears entries first
+        this.facetsByQuery = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, facetsByQuery, "product.facets");
+    }
+
+    public ProductFacets getFacets(String category, String sellerId, Double minPrice, Double maxPrice, Boolean active) {
+        FacetQuery query = new FacetQuery(
+                category != null ? category.toLowerCase(Locale.ROOT) : null,
+                sellerId,
+                minPrice != null ? BigDecimal.valueOf(minPrice) : null,
+                maxPrice != null ? BigDecimal.valueOf(maxPrice) : null,
+                active);
+        return facetsByQuery.get(query, this::aggregate);
+    }
+
+    // Any product write can move counts across every cached filter combination
+    public void invalidate() {
+        facetsByQuery.invalidateAll();
+    }
+
+    private ProductFacets aggregate(FacetQuery query) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        Criteria filter = filterFor(query);
+        if (filter != null) {
+            pipeline.add(Aggregation.match(filter));
+        }
+        // Only the faceted fields travel into $facet, which keeps its 100MB memory budget for large catalogs
+        pipeline.add(Aggregation.project("category", "sellerId", "price", "stockQuantity").andExclude("_id"));
+        pipeline.add(Aggregation.facet(Aggregation.sortByCount("category"), Aggregation.limit(maxValues)).as("categories")
+                .and(Aggregation.sortByCount("sellerId"), Aggregation.limit(maxValues)).as("sellers")
+                .and(Aggregation.bucket("price")
+                        .withBoundaries(bucketBoundaries())
+                        .withDefaultBucket(NO_VALUE)
+                        .andOutputCount().as("count")).as("priceBuckets")
+                .and(Aggregation.group()
+                        .count().as("total")
+                        .sum(ConditionalOperators.when(Criteria.where("stockQuantity").gt(0)).then(1).otherwise(0))
+                        .as("inStock")).as("stock"));
+
+        TypedAggregation<Product> aggregation = Aggregation.newAggregation(Product.class, pipeline);
+        if (query.category() != null) {
+            // Same collation as the category index, otherwise the $match cannot use it
+            aggregation = aggregation.withOptions(AggregationOptions.builder()
+                    .collation(MongoIndexConfig.CATEGORY_COLLATION)
+                    .build());
+        }
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        ProductFacets facets = mapToFacets(result != null ? result : new Document());
+        if (inventoryStockProjection.isReady()) {
+            long inStock = countInStock(query, filter);
+            facets.setInStock(inStock);
+            facets.setOutOfStock(facets.getTotal() - inStock);
+        }
+        return facets;
+    }
+
+    // Live availability from the projection; SKUs it cannot answer fall back to the product's stockQuantity
+    private long countInStock(FacetQuery query, Criteria filter) {
+        Query products = filter != null ? new Query(filter) : new Query();
+        products.fields().include("skuCode", "stockQuantity");
+        if (query.category() != null) {
+            products.collation(MongoIndexConfig.CATEGORY_COLLATION);
+        }
+        try (Stream<Product> matched = mongoTemplate.stream(products, Product.class)) {
+            return matched.filter(product -> {
+                Boolean projected = inventoryStockProjection.peekStock(product.getSkuCode());
+                return projected != null
+                        ? projected
+                        : product.getStockQuantity() != null && product.getStockQuantity() > 0;
+            }).count();
+        }
+    }
+
+    private static Criteria filterFor(FacetQuery query) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (query.category() != null) {
+            criteria.add(Criteria.where("category").is(query.category()));
+        }
+        if (query.sellerId() != null) {
+            criteria.add(Criteria.where("sellerId").is(query.sellerId()));
+        }
+        if (query.active() != null) {
+            criteria.add(Criteria.where("active").is(query.active()));
+        }
+        if (query.minPrice() != null || query.maxPrice() != null) {
+            Criteria price = Criteria.where("price");
+            if (query.minPrice() != null) {
+                price.gte(query.minPrice());
+            }
+            if (query.maxPrice() != null) {
+                price.lte(query.maxPrice());
+            }
+            criteria.add(price);
+        }
+        if (criteria.isEmpty()) {
+            return null;
+        }
+        return criteria.size() == 1 ? criteria.get(0) : new Criteria().andOperator(criteria);
+    }
+
+    // Prices are Decimal128 in Mongo; -Infinity and +Infinity catch prices below and above the configured buckets,
+    // so only products without a numeric price reach the default bucket
+    private Object[] bucketBoundaries() {
+        Object[] boundaries = new Object[priceBoundaries.length + 2];
+        boundaries[0] = Decimal128.NEGATIVE_INFINITY;
+        for (int i = 0; i < priceBoundaries.length; i++) {
+            boundaries[i + 1] = new Decimal128(priceBoundaries[i]);
+        }
+        boundaries[priceBoundaries.length + 1] = Decimal128.POSITIVE_INFINITY;
+        return boundaries;
+    }
+
+    private ProductFacets mapToFacets(Document result) {
+        Document stock = first(result.getList("stock", Document.class));
+        long total = stock != null ? number(stock.get("total")) : 0;
+        long inStock = stock != null ? number(stock.get("inStock")) : 0;
+        return ProductFacets.builder()
+                .total(total)
+                .categories(valueCounts(result.getList("categories", Document.class)))
+                .sellers(valueCounts(result.getList("sellers", Document.class)))
+                .priceBuckets(priceBuckets(result.getList("priceBuckets", Document.class)))
+                .inStock(inStock)
+                .outOfStock(total - inStock)
+                .build();
+    }
+
+    // Every configured bucket is returned, empty ones with a zero count, so sidebars keep a stable layout. The
+    // buckets below the first boundary and without a price only appear when they hold products.
+    private List<ProductFacets.PriceBucket> priceBuckets(List<Document> documents) {
+        Map<BigDecimal, Long> counts = new HashMap<>();
+        long belowFirst = 0;
+        long unpriced = 0;
+        if (documents != null) {
+            for (Document document : documents) {
+                Object lowerBound = document.get("_id");
+                if (lowerBound instanceof Decimal128 decimal && decimal.isInfinite()) {
+                    belowFirst += number(document.get("count"));
+                } else if (lowerBound instanceof Decimal128 decimal) {
+                    counts.put(decimal.bigDecimalValue(), number(document.get("count")));
+                } else {
+                    unpriced += number(document.get("count"));
+                }
+            }
+        }
+        List<ProductFacets.PriceBucket> buckets = new ArrayList<>(priceBoundaries.length + 2);
+        if (belowFirst > 0) {
+            buckets.add(ProductFacets.PriceBucket.builder()
+                    .max(priceBoundaries.length > 0 ? priceBoundaries[0] : null)
+                    .count(belowFirst)
+                    .build());
+        }
+        for (int i = 0; i < priceBoundaries.length; i++) {
+            buckets.add(ProductFacets.PriceBucket.builder()
+                    .min(priceBoundaries[i])
+                    .max(i + 1 < priceBoundaries.length ? priceBoundaries[i + 1] : null)
+                    .count(counts.getOrDefault(priceBoundaries[i], 0L))
+                    .build());
+        }
+        if (unpriced > 0) {
+            buckets.add(ProductFacets.PriceBucket.builder().count(unpriced).build());
+        }
+        return buckets;
+    }
+
+    private static Map<String, Long> valueCounts(List<Document> documents) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (documents != null) {
+            for (Document document : documents) {
+                Object value = document.get("_id");
+                counts.merge(value != null ? value.toString() : NO_VALUE, number(document.get("count")), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static Document first(List<Document> documents) {
+        return documents != null && !documents.isEmpty() ? documents.get(0) : null;
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
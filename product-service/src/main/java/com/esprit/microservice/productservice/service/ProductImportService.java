@@ -0,0 +1,321 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.dto.ProductImportReport;
+import com.esprit.microservice.productservice.dto.ProductRequest;
+import com.esprit.microservice.productservice.event.ProductCreatedEvent;
+import com.esprit.microservice.productservice.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk product import for seller onboarding. The body is parsed as it streams in (CSV with a header row, or NDJSON),
+ * rows are validated and written in unordered insertMany batches, and each batch records its ProductCreatedEvents
+ * with one outbox insert. Memory stays bounded by the batch size and the capped error list, not the file size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductEventOutbox productEventOutbox;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductCatalogIndex productCatalogIndex;
+    private final EmailService emailService;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    public ProductImportReport importProducts(InputStream body, Format format, String sellerId) throws IOException {
+        ImportRun run = new ImportRun(sellerId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+
+        ProductImportReport report = ProductImportReport.builder()
+                .totalRows(run.totalRows)
+                .imported(run.imported)
+                .failed(run.failed)
+                .errors(run.errors)
+                .errorsTruncated(run.failed > run.errors.size())
+                .build();
+        log.info("Bulk import by seller {}: {} rows, {} imported, {} failed", sellerId, run.totalRows, run.imported, run.failed);
+
+        // One summary email for the whole import instead of one per product
+        String sellerEmail = productService.getEmailFromToken();
+        if (sellerEmail != null && !sellerEmail.isEmpty()) {
+            try {
+                emailService.sendBulkImportSummary(sellerEmail, report.getTotalRows(), report.getImported(), report.getFailed());
+            } catch (Exception e) {
+                log.error("Failed to send bulk import summary to {}: {}", sellerEmail, e.getMessage());
+            }
+        }
+        return report;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().replace("\uFEFF", ""), i);
+        }
+        if (!columns.containsKey("skuCode") || !columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new RuntimeException("CSV header must contain at least name, price and skuCode columns");
+        }
+
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (CsvRecordReader.CsvFormatException e) {
+                // The rest of the body is one unreadable record: report it, keep what was imported so far
+                run.reject(++run.totalRows, null, e.getMessage() + "; the remaining input was not imported");
+                return;
+            }
+            if (record == null) {
+                return;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            int row = ++run.totalRows;
+            try {
+                run.add(row, ProductRequest.builder()
+                        .name(column(record, columns, "name"))
+                        .description(column(record, columns, "description"))
+                        .price(parseDecimal(column(record, columns, "price"), "price"))
+                        .skuCode(column(record, columns, "skuCode"))
+                        .category(column(record, columns, "category"))
+                        .imageUrls(parseList(column(record, columns, "imageUrls")))
+                        .stockQuantity(parseInteger(column(record, columns, "stockQuantity"), "stockQuantity"))
+                        .active(parseBoolean(column(record, columns, "active")))
+                        .build());
+            } catch (IllegalArgumentException e) {
+                run.reject(row, column(record, columns, "skuCode"), e.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int row = ++run.totalRows;
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (node == null || !node.isObject()) {
+                    run.reject(row, null, "Each line must be a JSON object");
+                    continue;
+                }
+                run.add(row, objectMapper.treeToValue(node, ProductRequest.class));
+            } catch (JsonProcessingException e) {
+                run.reject(row, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String validate(ProductRequest request) {
+        if (request.getSkuCode() == null || request.getSkuCode().isBlank()) {
+            return "skuCode is required";
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "name is required";
+        }
+        if (request.getPrice() == null || request.getPrice().signum() < 0) {
+            return "price must be zero or positive";
+        }
+        if (request.getStockQuantity() != null && request.getStockQuantity() < 0) {
+            return "stockQuantity must be zero or positive";
+        }
+        return null;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal parseDecimal(String value, String field) {
+        try {
+            return value != null ? new BigDecimal(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value, String field) {
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not an integer: " + value);
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        return value != null ? Boolean.valueOf(value) : null;
+    }
+
+    // Image URLs in one CSV cell, separated by '|'
+    private static List<String> parseList(String value) {
+        return value != null ? Arrays.stream(value.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toList() : null;
+    }
+
+    // Per-request state: the pending batch plus running totals
+    private class ImportRun {
+        private final String sellerId;
+        private final List<Integer> batchRows = new ArrayList<>();
+        private final List<Product> batch = new ArrayList<>();
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        private int totalRows;
+        private int imported;
+        private int failed;
+
+        ImportRun(String sellerId) {
+            this.sellerId = sellerId;
+        }
+
+        void add(int row, ProductRequest request) {
+            String error = validate(request);
+            if (error != null) {
+                reject(row, request.getSkuCode(), error);
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            batchRows.add(row);
+            batch.add(Product.builder()
+                    // Ids are assigned up front so rows that fail inside the bulk insert can be told apart
+                    .id(new ObjectId().toHexString())
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .price(request.getPrice())
+                    .skuCode(request.getSkuCode().trim())
+                    .category(request.getCategory())
+                    .imageUrls(request.getImageUrls())
+                    .stockQuantity(request.getStockQuantity() != null ? request.getStockQuantity() : 0)
+                    .active(request.getActive() != null ? request.getActive() : true)
+                    .sellerId(sellerId)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(int row, String skuCode, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ProductImportReport.RowError.builder().row(row).skuCode(skuCode).message(message).build());
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            // SKUs already in the catalog (including earlier batches of this import) or repeated within the batch
+            Set<String> skuCodes = new HashSet<>();
+            batch.forEach(product -> skuCodes.add(product.getSkuCode()));
+            Query existingQuery = Query.query(Criteria.where("skuCode").in(skuCodes));
+            existingQuery.fields().include("skuCode");
+            Set<String> taken = new HashSet<>();
+            mongoTemplate.find(existingQuery, Product.class).forEach(product -> taken.add(product.getSkuCode()));
+
+            List<Product> accepted = new ArrayList<>(batch.size());
+            List<Integer> acceptedRows = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Product product = batch.get(i);
+                if (!taken.add(product.getSkuCode())) {
+                    reject(batchRows.get(i), product.getSkuCode(), "skuCode already exists: " + product.getSkuCode());
+                } else {
+                    accepted.add(product);
+                    acceptedRows.add(batchRows.get(i));
+                }
+            }
+            batch.clear();
+            batchRows.clear();
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            Set<Integer> failedIndexes = new HashSet<>();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class).insert(accepted).execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    failedIndexes.add(error.getIndex());
+                    reject(acceptedRows.get(error.getIndex()), accepted.get(error.getIndex()).getSkuCode(), error.getMessage());
+                }
+            }
+
+            Map<String, ProductCreatedEvent> events = new LinkedHashMap<>();
+            for (int i = 0; i < accepted.size(); i++) {
+                if (failedIndexes.contains(i)) {
+                    continue;
+                }
+                Product product = accepted.get(i);
+                productSearchIndex.index(product);
+                productCatalogIndex.index(product);
+                productSuggestionIndex.index(product);
+                events.put(product.getSkuCode(), ProductCreatedEvent.builder()
+                        .productId(product.getId())
+                        .skuCode(product.getSkuCode())
+                        .name(product.getName())
+                        .quantity(product.getStockQuantity())
+                        .sellerId(product.getSellerId())
+                        .build());
+            }
+            productEventOutbox.appendAll("product-created-topic", events);
+            imported += events.size();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over product name, category and description.
+ * Built from the product collection at startup and kept in sync by ProductService on create, update and delete.
+ * Every query term must match; the last term also matches as a prefix so the index serves search-as-you-type.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_MATCH_FACTOR = 0.8f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float TF_SATURATION = 1.2f;
+    private static final int MIN_DELETED_BEFORE_COMPACTION = 1024;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.search.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (ordinal, weighted term frequency), ordinals appended in increasing order
+    private final TreeMap<String, Postings> postingsByTerm = new TreeMap<>();
+    // ordinal -> product id, null once the product is removed or re-indexed under a new ordinal
+    private final List<String> idByOrdinal = new ArrayList<>();
+    private final Map<String, Integer> ordinalById = new HashMap<>();
+    private final Set<String> removedDuringBuild = new HashSet<>();
+    private int deletedCount;
+    private boolean building;
+    private volatile boolean ready;
+
+    public record Hits(List<String> ids, int total) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            building = true;
+            removedDuringBuild.clear();
+        });
+        try (Stream<Product> products = mongoTemplate.stream(new Query(), Product.class)) {
+            // Products indexed or removed by live writes while the build runs are newer than the cursor's copy
+            products.forEach(product -> withWriteLock(() -> {
+                if (!ordinalById.containsKey(product.getId()) && !removedDuringBuild.contains(product.getId())) {
+                    addLocked(product);
+                }
+            }));
+            ready = true;
+            log.info("Product search index built with {} products and {} terms", ordinalById.size(), postingsByTerm.size());
+        } catch (Exception e) {
+            log.error("Failed to build product search index, falling back to Mongo search: {}", e.getMessage());
+        } finally {
+            withWriteLock(() -> {
+                building = false;
+                removedDuringBuild.clear();
+            });
+        }
+    }
+
+    public void index(Product product) {
+        if (!enabled || product.getId() == null) {
+            return;
+        }
+        withWriteLock(() -> {
+            removeLocked(product.getId());
+            addLocked(product);
+        });
+    }
+
+    public void remove(String productId) {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            removeLocked(productId);
+            if (building) {
+                removedDuringBuild.add(productId);
+            }
+        });
+    }
+
+    // Ranked product ids in [offset, offset + limit); total is the number of matching products
+    public Hits search(String query, int offset, int limit) {
+        List<String> tokens = ProductTextAnalyzer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new Hits(Collections.emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> scores = null;
+            for (int i = 0; i < tokens.size() && (scores == null || !scores.isEmpty()); i++) {
+                Map<Integer, Float> termScores = scoreToken(tokens.get(i), i == tokens.size() - 1);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Integer, Float> matched = new HashMap<>();
+                    for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                        Float score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            matched.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = matched;
+                }
+            }
+            return new Hits(topIds(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Float> scoreToken(String token, boolean allowPrefix) {
+        Map<Integer, Float> termScores = new HashMap<>();
+        String stemmed = ProductTextAnalyzer.stem(token);
+        addTermScores(termScores, stemmed, 1f);
+        if (allowPrefix) {
+            int expansions = 0;
+            for (String term : postingsByTerm.tailMap(token, true).keySet()) {
+                if (!term.startsWith(token) || expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                if (!term.equals(stemmed)) {
+                    addTermScores(termScores, term, PREFIX_MATCH_FACTOR);
+                }
+            }
+        }
+        return termScores;
+    }
+
+    private void addTermScores(Map<Integer, Float> termScores, String term, float factor) {
+        Postings postings = postingsByTerm.get(term);
+        if (postings == null) {
+            return;
+        }
+        int documents = ordinalById.size();
+        float idf = (float) Math.log(1 + (documents - postings.size + 0.5) / (postings.size + 0.5));
+        for (int i = 0; i < postings.size; i++) {
+            int ordinal = postings.ordinals[i];
+            if (idByOrdinal.get(ordinal) == null) {
+                continue;
+            }
+            float tf = postings.weights[i];
+            float score = factor * idf * (tf * (TF_SATURATION + 1)) / (tf + TF_SATURATION);
+            termScores.merge(ordinal, score, Math::max);
+        }
+    }
+
+    private List<String> topIds(Map<Integer, Float> scores, int offset, int limit) {
+        long wanted = Math.min((long) offset + limit, scores.size());
+        if (wanted <= offset) {
+            return Collections.emptyList();
+        }
+        // Higher score first, then older products first for a stable order between pages
+        Comparator<Map.Entry<Integer, Float>> ranking = Map.Entry.<Integer, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(ranking.reversed());
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        List<String> ids = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            ids.add(idByOrdinal.get(ranked.get(i).getKey()));
+        }
+        return ids;
+    }
+
+    private void addLocked(Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        ProductTextAnalyzer.analyze(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Float::sum));
+        ProductTextAnalyzer.analyze(product.getCategory()).forEach(term -> weights.merge(term, CATEGORY_WEIGHT, Float::sum));
+        ProductTextAnalyzer.analyze(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+
+        int ordinal = idByOrdinal.size();
+        idByOrdinal.add(product.getId());
+        ordinalById.put(product.getId(), ordinal);
+        weights.forEach((term, weight) -> postingsByTerm.computeIfAbsent(term, t -> new Postings()).add(ordinal, weight));
+    }
+
+    private void removeLocked(String productId) {
+        Integer ordinal = ordinalById.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        idByOrdinal.set(ordinal, null);
+        deletedCount++;
+        if (deletedCount >= MIN_DELETED_BEFORE_COMPACTION && deletedCount * 4 > idByOrdinal.size()) {
+            compactLocked();
+        }
+    }
+
+    // Drops removed ordinals from every postings list and renumbers the live ones densely
+    private void compactLocked() {
+        int[] remap = new int[idByOrdinal.size()];
+        List<String> liveIds = new ArrayList<>(ordinalById.size());
+        for (int ordinal = 0; ordinal < idByOrdinal.size(); ordinal++) {
+            String id = idByOrdinal.get(ordinal);
+            if (id == null) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = liveIds.size();
+                ordinalById.put(id, liveIds.size());
+                liveIds.add(id);
+            }
+        }
+        idByOrdinal.clear();
+        idByOrdinal.addAll(liveIds);
+        postingsByTerm.values().removeIf(postings -> postings.compact(remap) == 0);
+        deletedCount = 0;
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+        }
+
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept] = ordinal;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.esprit.microservice.productservice.service;
 
-import com.esprit.microservice.productservice.client.InventoryClient;
-import com.esprit.microservice.productservice.dto.InventoryResponse;
+import com.esprit.microservice.productservice.config.MongoIndexConfig;
+import com.esprit.microservice.productservice.dto.ProductBatchResponse;
+import com.esprit.microservice.productservice.dto.ProductFields;
+import com.esprit.microservice.productservice.dto.ProductPage;
 import com.esprit.microservice.productservice.dto.ProductRequest;
 import com.esprit.microservice.productservice.dto.ProductResponse;
 import com.esprit.microservice.productservice.event.ProductCreatedEvent;
@@ -12,27 +14,62 @@ import com.esprit.microservice.productservice.model.Product;
 import com.esprit.microservice.productservice.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Ids per $in when loading index hits, keeping each query far below the 16MB BSON limit
+    private static final int ID_LOAD_BATCH = 1000;
+
     private final ProductRepository productRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final InventoryClient inventoryClient;
+    private final ProductEventOutbox productEventOutbox;
+    private final InventoryStockProjection inventoryStockProjection;
+    private final InventoryStockCache inventoryStockCache;
     private final EmailService emailService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCatalogIndex productCatalogIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductCache productCache;
+
+    @Value("${inventory.check-stock.batch-size:200}")
+    private int inventoryBatchSize;
+
+    @Value("${product.batch.max-ids:100}")
+    private int batchMaxIds;
+
+    // Above this share of the catalog an index hit list is no cheaper than letting Mongo scan
+    @Value("${product.catalog-index.max-selectivity:0.2}")
+    private double catalogIndexMaxSelectivity;
 
     // CREATE - Create a new product
+    @Transactional
     public ProductResponse createProduct(ProductRequest productRequest) {
         Product product = Product.builder()
                 .name(productRequest.getName())
@@ -49,8 +86,11 @@ public class ProductService {
                 .build();
 
         product = productRepository.save(product);
+        productSearchIndex.index(product);
+        productCatalogIndex.index(product);
+        productSuggestionIndex.index(product);
 
-        // Send Kafka event to create inventory (Asynchronous)
+        // Record Kafka event to create inventory (published asynchronously by OutboxRelay)
         ProductCreatedEvent createdEvent = ProductCreatedEvent.builder()
                 .productId(product.getId())
                 .skuCode(product.getSkuCode())
@@ -58,10 +98,10 @@ public class ProductService {
                 .quantity(product.getStockQuantity())
                 .sellerId(product.getSellerId())  // ✅ ADD THIS to event too
                 .build();
-        kafkaTemplate.send("product-created-topic", createdEvent);
+        productEventOutbox.append("product-created-topic", product.getSkuCode(), createdEvent);
 
-        // Also send notification event
-        kafkaTemplate.send("notificationTopic", new ProductPlacedEvent(product.getId()));        
+        // Also record notification event
+        productEventOutbox.append("notificationTopic", product.getSkuCode(), new ProductPlacedEvent(product.getId()));        
         log.info("Product {} is created with skuCode {} by seller {}", product.getId(), product.getSkuCode(), product.getSellerId());
         
         // Send email notification to seller - Extract email from JWT token
@@ -86,7 +126,7 @@ public class ProductService {
     }
 
     // Helper method to extract email from JWT token
-    private String getEmailFromToken() {
+    String getEmailFromToken() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
@@ -109,39 +149,73 @@ public class ProductService {
     // READ - Get all products with inventory check (Synchronous with OpenFeign)
     public List<ProductResponse> getAllProducts() {
         List<Product> products = productRepository.findAll();
-        return products.stream()
-                .map(this::mapToProductResponseWithInventory)
-                .collect(Collectors.toList());
+        return mapToProductResponsesWithInventory(products);
     }
 
     // READ - Get product by ID
     public ProductResponse getProductById(String id) {
-        Product product = productRepository.findById(id)
+        Product product = productCache.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        return mapToProductResponseWithInventory(product);
+        productSuggestionIndex.recordView(product.getId());
+        return mapToProductResponsesWithInventory(List.of(product)).get(0);
     }
 
-    // READ - Get products by category
-    public List<ProductResponse> getProductsByCategory(String category) {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(p -> p.getCategory() != null && p.getCategory().equalsIgnoreCase(category))
+    // READ - Get product by SKU code
+    public ProductResponse getProductBySkuCode(String skuCode) {
+        Product product = productCache.findBySkuCode(skuCode)
+                .orElseThrow(() -> new RuntimeException("Product not found with skuCode: " + skuCode));
+        productSuggestionIndex.recordView(product.getId());
+        return mapToProductResponsesWithInventory(List.of(product)).get(0);
+    }
+
+    // READ - Get many products by id for other services: cached documents plus one $in query for the rest, and one
+    // batched stock lookup. Every requested id gets an entry, not-found ones included.
+    public ProductBatchResponse getProductsByIds(List<String> ids, ProductFields fields) {
+        List<String> distinctIds = ids == null ? List.of() : ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
                 .collect(Collectors.toList());
-        return products.stream()
-                .map(this::mapToProductResponseWithInventory)
+        if (distinctIds.size() > batchMaxIds) {
+            throw new RuntimeException("At most " + batchMaxIds + " ids per batch request, got " + distinctIds.size());
+        }
+        Map<String, Product> productsById = productCache.findAllById(distinctIds);
+        List<Product> found = distinctIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        Map<String, ProductResponse> responsesById = new HashMap<>();
+        mapToProductResponsesWithInventory(found, fields).forEach(response -> responsesById.put(response.getId(), response));
+
+        Map<String, ProductBatchResponse.Result> results = new LinkedHashMap<>();
+        for (String id : distinctIds) {
+            ProductResponse response = responsesById.get(id);
+            results.put(id, new ProductBatchResponse.Result(response != null, response));
+        }
+        return ProductBatchResponse.builder()
+                .products(results)
+                .found(found.size())
+                .notFound(distinctIds.size() - found.size())
+                .build();
     }
 
-    // READ - Search products by name
+    // READ - Get products by category
+    public List<ProductResponse> getProductsByCategory(String category) {
+        List<Product> products = productRepository.findByCategory(category);
+        return mapToProductResponsesWithInventory(products);
+    }
+
+    // READ - Search products by name, description and category (relevance ranked, falls back to a Mongo name match
+    // while the search index is still building)
     public List<ProductResponse> searchProductsByName(String name) {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(p -> p.getName().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::mapToProductResponseWithInventory)
-                .collect(Collectors.toList());
+        if (!productSearchIndex.isReady()) {
+            return mapToProductResponsesWithInventory(productRepository.findByNameContainingIgnoreCase(name));
+        }
+        ProductSearchIndex.Hits hits = productSearchIndex.search(name, 0, Integer.MAX_VALUE);
+        return mapToProductResponsesWithInventory(findAllByIdInOrderBatched(hits.ids()));
     }
 
     // UPDATE - Update existing product
+    @Transactional
     public ProductResponse updateProduct(String id, ProductRequest productRequest) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -159,8 +233,12 @@ public class ProductService {
         product.setUpdatedAt(LocalDateTime.now());
         
         product = productRepository.save(product);
+        productCache.evict(product.getId(), product.getSkuCode());
+        productSearchIndex.index(product);
+        productCatalogIndex.index(product);
+        productSuggestionIndex.index(product);
         
-        // Send Kafka event to update inventory (Asynchronous)
+        // Record Kafka event to update inventory (published asynchronously by OutboxRelay)
         ProductUpdatedEvent updatedEvent = ProductUpdatedEvent.builder()
                 .productId(product.getId())
                 .skuCode(product.getSkuCode())
@@ -168,7 +246,7 @@ public class ProductService {
                 .quantity(product.getStockQuantity())
                 .action("UPDATE")
                 .build();
-        kafkaTemplate.send("product-updated-topic", updatedEvent);
+        productEventOutbox.append("product-updated-topic", product.getSkuCode(), updatedEvent);
         
         log.info("Product {} is updated", product.getId());
         
@@ -176,86 +254,233 @@ public class ProductService {
     }
 
     // DELETE - Delete product
+    @Transactional
     public void deleteProduct(String id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         
-        // Send Kafka event to delete inventory (Asynchronous)
+        // Record Kafka event to delete inventory (published asynchronously by OutboxRelay)
         ProductDeletedEvent deletedEvent = ProductDeletedEvent.builder()
                 .productId(product.getId())
                 .skuCode(product.getSkuCode())
                 .build();
-        kafkaTemplate.send("product-deleted-topic", deletedEvent);
+        productEventOutbox.append("product-deleted-topic", product.getSkuCode(), deletedEvent);
         
         productRepository.delete(product);
+        productCache.evict(product.getId(), product.getSkuCode());
+        productSearchIndex.remove(id);
+        productCatalogIndex.remove(id);
+        productSuggestionIndex.remove(id);
         
         log.info("Product {} is deleted", id);
     }
 
     // ADVANCED - Get active products only
     public List<ProductResponse> getActiveProducts() {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(Product::getActive)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::mapToProductResponseWithInventory)
-                .collect(Collectors.toList());
+        List<Product> products = findByCatalogIndex(ProductCatalogIndex.Filter.active(true),
+                productRepository::findByActiveTrue);
+        return mapToProductResponsesWithInventory(products);
     }
 
     // ADVANCED - Get products by price range
     public List<ProductResponse> getProductsByPriceRange(Double minPrice, Double maxPrice) {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(p -> p.getPrice().doubleValue() >= minPrice && p.getPrice().doubleValue() <= maxPrice)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::mapToProductResponseWithInventory)
-                .collect(Collectors.toList());
+        BigDecimal min = BigDecimal.valueOf(minPrice);
+        BigDecimal max = BigDecimal.valueOf(maxPrice);
+        List<Product> products = findByCatalogIndex(ProductCatalogIndex.Filter.priceBetween(min, max),
+                () -> productRepository.findByPriceBetween(Range.closed(min, max)));
+        return mapToProductResponsesWithInventory(products);
     }
 
     // ADVANCED - Get low stock products
     public List<ProductResponse> getLowStockProducts(Integer threshold) {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() < threshold)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::mapToProductResponseWithInventory)
-                .collect(Collectors.toList());
+        List<Product> products = findByCatalogIndex(ProductCatalogIndex.Filter.stockBelow(threshold),
+                () -> productRepository.findByStockQuantityLessThan(threshold));
+        return mapToProductResponsesWithInventory(products);
     }
 
     // READ - Get products by seller ID
     public List<ProductResponse> getProductsBySeller(String sellerId) {
         log.info("Fetching products for seller: {}", sellerId);
-        List<Product> products = productRepository.findAll().stream()
-                .filter(p -> p.getSellerId() != null && p.getSellerId().equals(sellerId))
-                .collect(Collectors.toList());
+        List<Product> products = productRepository.findBySellerId(sellerId);
         log.info("Found {} products for seller {}", products.size(), sellerId);
+        return mapToProductResponsesWithInventory(products);
+    }
+
+    // EXPORT - Stream products (optionally one seller's) from a Mongo cursor, enriched one inventory batch at a time.
+    // Memory stays bounded by the batch size; a slow consumer simply delays reading the next cursor batch.
+    public void exportProducts(String sellerId, Consumer<ProductResponse> consumer) {
+        try (Stream<Product> products = sellerId != null
+                ? productRepository.streamBySellerId(sellerId)
+                : productRepository.streamAllBy()) {
+            List<Product> chunk = new ArrayList<>(inventoryBatchSize);
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == inventoryBatchSize || !iterator.hasNext()) {
+                    mapToProductResponsesWithInventory(chunk).forEach(consumer);
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    // PAGED READS - Keyset (cursor) pagination ordered by (sortKey, _id)
+    public ProductPage getAllProducts(String cursor, int size, ProductFields fields) {
+        return findProductPage(new Criteria(), null, ProductCursor.ID, cursor, size, fields);
+    }
+
+    public ProductPage getProductsByCategory(String category, String cursor, int size, ProductFields fields) {
+        return findProductPage(Criteria.where("category").is(category), MongoIndexConfig.CATEGORY_COLLATION,
+                ProductCursor.ID, cursor, size, fields);
+    }
+
+    public ProductPage searchProductsByName(String name, String cursor, int size, ProductFields fields) {
+        if (!productSearchIndex.isReady()) {
+            return findProductPage(Criteria.where("name").regex(Pattern.quote(name), "i"), null,
+                    ProductCursor.ID, cursor, size, fields);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = cursor != null && !cursor.isEmpty() ? ProductCursor.decodeOffset(cursor) : 0;
+        ProductSearchIndex.Hits hits = productSearchIndex.search(name, offset, pageSize);
+        List<Product> products = findAllByIdInOrder(hits.ids(), fields);
+        boolean hasNext = offset + pageSize < hits.total();
+
+        return ProductPage.builder()
+                .content(mapToProductResponsesWithInventory(products, fields))
+                .size(products.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ProductCursor.encodeOffset(offset + pageSize) : null)
+                .build();
+    }
+
+    // Helper method to resolve a filter through the catalog index when it is built and selective enough: only the
+    // matching documents are loaded, in $in batches. Otherwise the Mongo query runs as before.
+    private List<Product> findByCatalogIndex(ProductCatalogIndex.Filter filter, Supplier<List<Product>> mongoQuery) {
+        if (!productCatalogIndex.isReady()) {
+            return mongoQuery.get();
+        }
+        List<String> ids = productCatalogIndex.findIds(filter);
+        if (ids.size() > productCatalogIndex.size() * catalogIndexMaxSelectivity) {
+            return mongoQuery.get();
+        }
+        return findAllByIdInOrderBatched(ids);
+    }
+
+    // Helper method to load any number of ids in order, one $in query per ID_LOAD_BATCH ids
+    private List<Product> findAllByIdInOrderBatched(List<String> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_LOAD_BATCH) {
+            products.addAll(findAllByIdInOrder(ids.subList(from, Math.min(from + ID_LOAD_BATCH, ids.size())), null));
+        }
+        return products;
+    }
+
+    // Helper method to load products keeping the order of the given ids (ids missing from Mongo are skipped)
+    private List<Product> findAllByIdInOrder(List<String> ids, ProductFields fields) {
+        Map<String, Product> productsById = new HashMap<>();
+        productRepository.findAllById(ids, fields).forEach(product -> productsById.put(product.getId(), product));
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public ProductPage getActiveProducts(String cursor, int size, ProductFields fields) {
+        return findProductPage(Criteria.where("active").is(true), null, ProductCursor.ID, cursor, size, fields);
+    }
+
+    public ProductPage getProductsByPriceRange(Double minPrice, Double maxPrice, String cursor, int size, ProductFields fields) {
+        Criteria filter = Criteria.where("price").gte(BigDecimal.valueOf(minPrice)).lte(BigDecimal.valueOf(maxPrice));
+        return findProductPage(filter, null, ProductCursor.PRICE, cursor, size, fields);
+    }
+
+    public ProductPage getLowStockProducts(Integer threshold, String cursor, int size, ProductFields fields) {
+        return findProductPage(Criteria.where("stockQuantity").lt(threshold), null,
+                ProductCursor.STOCK_QUANTITY, cursor, size, fields);
+    }
+
+    public ProductPage getProductsBySeller(String sellerId, String cursor, int size, ProductFields fields) {
+        return findProductPage(Criteria.where("sellerId").is(sellerId), null, ProductCursor.ID, cursor, size, fields);
+    }
+
+    // Helper method to fetch one keyset page (one extra row tells whether another page exists)
+    private ProductPage findProductPage(Criteria filter, Collation collation, String sortField, String cursor, int size,
+                                        ProductFields fields) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductCursor after = cursor != null && !cursor.isEmpty() ? ProductCursor.decode(cursor, sortField) : null;
+
+        List<Product> products = productRepository.findPage(filter, collation, sortField,
+                after != null ? after.sortValue() : null,
+                after != null ? after.id() : null,
+                pageSize + 1,
+                fields);
+
+        boolean hasNext = products.size() > pageSize;
+        String nextCursor = null;
+        if (hasNext) {
+            products = products.subList(0, pageSize);
+            Product last = products.get(pageSize - 1);
+            nextCursor = new ProductCursor(sortValueOf(last, sortField), last.getId()).encode(sortField);
+        }
+
+        return ProductPage.builder()
+                .content(mapToProductResponsesWithInventory(products, fields))
+                .size(products.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Object sortValueOf(Product product, String sortField) {
+        return switch (sortField) {
+            case ProductCursor.PRICE -> product.getPrice();
+            case ProductCursor.STOCK_QUANTITY -> product.getStockQuantity();
+            default -> null;
+        };
+    }
+
+    // Helper method to map a page of Products to ProductResponses with one stock lookup (local projection, OpenFeign fallback)
+    private List<ProductResponse> mapToProductResponsesWithInventory(List<Product> products) {
+        return mapToProductResponsesWithInventory(products, null);
+    }
+
+    // Sparse fieldsets without inStock skip the stock lookup entirely
+    private List<ProductResponse> mapToProductResponsesWithInventory(List<Product> products, ProductFields fields) {
+        if (fields != null && !fields.includes(ProductFields.IN_STOCK)) {
+            return products.stream().map(ProductService::mapToProductResponse).collect(Collectors.toList());
+        }
+        Map<String, Boolean> stockBySku = checkStockBySku(products.stream()
+                .map(Product::getSkuCode)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()));
+
         return products.stream()
-                .map(this::mapToProductResponseWithInventory)
+                .map(product -> {
+                    ProductResponse response = mapToProductResponse(product);
+                    // null means inventory-service could not be reached: stock is unknown, not "out of stock"
+                    if (product.getSkuCode() != null) {
+                        response.setInStock(stockBySku.get(product.getSkuCode()));
+                    }
+                    return response;
+                })
                 .collect(Collectors.toList());
     }
 
-    // Helper method to map Product to ProductResponse with inventory check (OpenFeign - Synchronous)
-    private ProductResponse mapToProductResponseWithInventory(Product product) {
-        ProductResponse response = mapToProductResponse(product);
-        
-        // Call Inventory Service synchronously using OpenFeign
-        try {
-            List<InventoryResponse> inventoryResponses = inventoryClient.checkStock(
-                    Collections.singletonList(product.getSkuCode())
-            );
-            if (!inventoryResponses.isEmpty()) {
-                response.setInStock(inventoryResponses.get(0).getIsInStock());
-            }
-        } catch (Exception e) {
-            log.error("Error checking inventory for product {}", product.getId(), e);
-            response.setInStock(false);
+    // Helper method to resolve stock for many SKUs: the local inventory projection first, then the stock cache
+    // (one batched Inventory Service call) only for SKUs the projection cannot answer, e.g. before its first
+    // snapshot. SKUs unknown to inventory map to false, unreachable ones to null.
+    private Map<String, Boolean> checkStockBySku(List<String> skuCodes) {
+        Map<String, Boolean> stock = inventoryStockProjection.getStock(skuCodes);
+        if (stock.size() < skuCodes.size()) {
+            List<String> unanswered = skuCodes.stream().filter(skuCode -> !stock.containsKey(skuCode)).toList();
+            stock.putAll(inventoryStockCache.getStock(unanswered));
         }
-        
-        return response;
+        return stock;
     }
 
     // Helper method to map Product to ProductResponse
-    private ProductResponse mapToProductResponse(Product product) {
+    static ProductResponse mapToProductResponse(Product product) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
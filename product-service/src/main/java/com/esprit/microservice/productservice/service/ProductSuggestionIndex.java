@@ -0,0 +1,255 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.dto.ProductSuggestions;
+import com.esprit.microservice.productservice.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead suggestions for the storefront search box: active product names and categories in two prefix tries
+ * that keep the top-K of every prefix precomputed, so a suggestion is one walk down the typed prefix with no Mongo
+ * access. Names match from the start of any word. Products rank by how often their detail page was viewed on this
+ * instance (folded into the tries periodically), categories by their number of active products.
+ * Built from the product collection at startup and kept in sync on create, update and delete like ProductSearchIndex.
+ */
+@Component
+@Slf4j
+public class ProductSuggestionIndex {
+
+    // What the tries currently hold for a product, so updates and deletes can undo its category count
+    private record IndexedProduct(String categoryKey) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxKeyLength;
+    private final int maxWords;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestionTrie productTrie;
+    private final SuggestionTrie categoryTrie;
+    private final Map<String, IndexedProduct> indexedProducts = new HashMap<>();
+    // normalized category -> number of active products
+    private final Map<String, Integer> categoryCounts = new HashMap<>();
+    // productId -> total views folded into the trie; pending views are counted lock-free until the next fold
+    private final Map<String, Long> views = new HashMap<>();
+    private final Map<String, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final Set<String> removedDuringBuild = new HashSet<>();
+    private boolean building;
+    private volatile boolean ready;
+
+    private final Timer latency;
+
+    public ProductSuggestionIndex(MongoTemplate mongoTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${product.suggest.enabled:true}") boolean enabled,
+                                  @Value("${product.suggest.top-k:10}") int topK,
+                                  @Value("${product.suggest.max-key-length:24}") int maxKeyLength,
+                                  @Value("${product.suggest.max-words:4}") int maxWords) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxKeyLength = maxKeyLength;
+        this.maxWords = maxWords;
+        this.productTrie = new SuggestionTrie(topK);
+        this.categoryTrie = new SuggestionTrie(topK);
+        this.latency = Timer.builder("product.suggest.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            building = true;
+            removedDuringBuild.clear();
+        });
+        Query query = new Query();
+        query.fields().include("name", "category", "active");
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            // Products indexed or removed by live writes while the build runs are newer than the cursor's copy
+            products.forEach(product -> withWriteLock(() -> {
+                if (!indexedProducts.containsKey(product.getId()) && !removedDuringBuild.contains(product.getId())) {
+                    putLocked(product);
+                }
+            }));
+            ready = true;
+            log.info("Product suggestion index built with {} products and {} categories", productTrie.size(), categoryTrie.size());
+        } catch (Exception e) {
+            log.error("Failed to build product suggestion index: {}", e.getMessage());
+        } finally {
+            withWriteLock(() -> {
+                building = false;
+                removedDuringBuild.clear();
+            });
+        }
+    }
+
+    public void index(Product product) {
+        if (!enabled || product.getId() == null) {
+            return;
+        }
+        withWriteLock(() -> putLocked(product));
+    }
+
+    public void remove(String productId) {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            removeLocked(productId);
+            pendingViews.remove(productId);
+            views.remove(productId);
+            if (building) {
+                removedDuringBuild.add(productId);
+            }
+        });
+    }
+
+    // Called on product detail reads; cheap and lock-free, ranking catches up on the next fold
+    public void recordView(String productId) {
+        if (enabled && productId != null) {
+            pendingViews.computeIfAbsent(productId, id -> new LongAdder()).increment();
+        }
+    }
+
+    public ProductSuggestions suggest(String query, int limit) {
+        long started = System.nanoTime();
+        String prefix = ProductTextAnalyzer.normalize(query);
+        if (prefix.length() > maxKeyLength) {
+            prefix = prefix.substring(0, maxKeyLength);
+        }
+        List<ProductSuggestions.ProductSuggestion> products = new ArrayList<>();
+        List<ProductSuggestions.CategorySuggestion> categories = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (SuggestionTrie.Entry entry : productTrie.top(prefix, limit)) {
+                products.add(new ProductSuggestions.ProductSuggestion(entry.id, entry.text));
+            }
+            for (SuggestionTrie.Entry entry : categoryTrie.top(prefix, limit)) {
+                categories.add(new ProductSuggestions.CategorySuggestion(entry.text, entry.score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return ProductSuggestions.builder().products(products).categories(categories).build();
+    }
+
+    // Applies the views counted since the last fold; only products that were viewed are re-ranked
+    @Scheduled(fixedDelayString = "${product.suggest.popularity-flush-ms:30000}")
+    public void foldViews() {
+        if (!enabled || pendingViews.isEmpty()) {
+            return;
+        }
+        Map<String, Long> counted = new HashMap<>();
+        for (String productId : List.copyOf(pendingViews.keySet())) {
+            LongAdder adder = pendingViews.remove(productId);
+            if (adder != null) {
+                counted.put(productId, adder.sum());
+            }
+        }
+        withWriteLock(() -> counted.forEach((productId, count) -> {
+            if (indexedProducts.containsKey(productId)) {
+                long total = views.merge(productId, count, Long::sum);
+                productTrie.setScore(productId, total);
+            }
+        }));
+    }
+
+    private void putLocked(Product product) {
+        removeLocked(product.getId());
+        // Inactive products are not offered; their views are kept in case they are re-activated
+        if (!Boolean.TRUE.equals(product.getActive())) {
+            return;
+        }
+        String name = ProductTextAnalyzer.normalize(product.getName());
+        if (!name.isEmpty()) {
+            productTrie.put(product.getId(), product.getName().trim(), wordStartKeys(name),
+                    views.getOrDefault(product.getId(), 0L));
+        }
+        String categoryKey = ProductTextAnalyzer.normalize(product.getCategory());
+        if (!categoryKey.isEmpty()) {
+            int count = categoryCounts.merge(categoryKey, 1, Integer::sum);
+            SuggestionTrie.Entry category = categoryTrie.get(categoryKey);
+            if (category == null) {
+                categoryTrie.put(categoryKey, product.getCategory().trim(), wordStartKeys(categoryKey), count);
+            } else {
+                categoryTrie.setScore(categoryKey, count);
+            }
+        }
+        indexedProducts.put(product.getId(), new IndexedProduct(categoryKey.isEmpty() ? null : categoryKey));
+    }
+
+    private void removeLocked(String productId) {
+        IndexedProduct indexed = indexedProducts.remove(productId);
+        if (indexed == null) {
+            return;
+        }
+        productTrie.remove(productId);
+        if (indexed.categoryKey() != null) {
+            Integer count = categoryCounts.merge(indexed.categoryKey(), -1, Integer::sum);
+            if (count == null || count <= 0) {
+                categoryCounts.remove(indexed.categoryKey());
+                categoryTrie.remove(indexed.categoryKey());
+            } else {
+                categoryTrie.setScore(indexed.categoryKey(), count);
+            }
+        }
+    }
+
+    // "wireless gaming mouse" -> "wireless gaming mouse", "gaming mouse", "mouse" (each cut to maxKeyLength)
+    private List<String> wordStartKeys(String normalized) {
+        Set<String> keys = new LinkedHashSet<>();
+        int start = 0;
+        while (start >= 0 && keys.size() < maxWords) {
+            String key = normalized.substring(start);
+            keys.add(key.length() > maxKeyLength ? key.substring(0, maxKeyLength) : key);
+            int space = normalized.indexOf(' ', start);
+            start = space >= 0 ? space + 1 : -1;
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
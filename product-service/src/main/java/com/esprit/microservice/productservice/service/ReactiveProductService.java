@@ -0,0 +1,117 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.client.ReactiveInventoryClient;
+import com.esprit.microservice.productservice.dto.InventoryResponse;
+import com.esprit.microservice.productservice.dto.ProductResponse;
+import com.esprit.microservice.productservice.model.Product;
+import com.esprit.microservice.productservice.repository.ReactiveProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Non-blocking read path: products stream from reactive Mongo and are enriched with stock from the local
+ * InventoryStockProjection; only SKUs it cannot answer (e.g. before its first snapshot) go to inventory-service, in
+ * batched, concurrent calls, so no thread waits on Mongo or on inventory-service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveProductService {
+    private final ReactiveProductRepository reactiveProductRepository;
+    private final ReactiveInventoryClient reactiveInventoryClient;
+    private final InventoryStockProjection inventoryStockProjection;
+
+    @Value("${inventory.check-stock.batch-size:200}")
+    private int inventoryBatchSize;
+
+    @Value("${inventory.check-stock.concurrency:4}")
+    private int inventoryConcurrency;
+
+    public Flux<ProductResponse> getAllProducts() {
+        return withInventory(reactiveProductRepository.findAll());
+    }
+
+    public Mono<ProductResponse> getProductById(String id) {
+        return withInventory(reactiveProductRepository.findById(id).flux()).next();
+    }
+
+    public Flux<ProductResponse> getProductsByCategory(String category) {
+        return withInventory(reactiveProductRepository.findByCategory(category));
+    }
+
+    public Flux<ProductResponse> searchProductsByName(String name) {
+        return withInventory(reactiveProductRepository.findByNameContainingIgnoreCase(name));
+    }
+
+    public Flux<ProductResponse> getActiveProducts() {
+        return withInventory(reactiveProductRepository.findByActiveTrue());
+    }
+
+    public Flux<ProductResponse> getProductsByPriceRange(Double minPrice, Double maxPrice) {
+        return withInventory(reactiveProductRepository.findByPriceBetween(
+                Range.closed(BigDecimal.valueOf(minPrice), BigDecimal.valueOf(maxPrice))));
+    }
+
+    public Flux<ProductResponse> getLowStockProducts(Integer threshold) {
+        return withInventory(reactiveProductRepository.findByStockQuantityLessThan(threshold));
+    }
+
+    public Flux<ProductResponse> getProductsBySeller(String sellerId) {
+        return withInventory(reactiveProductRepository.findBySellerId(sellerId));
+    }
+
+    // Batches products, resolves each batch's stock concurrently, and keeps the original order
+    private Flux<ProductResponse> withInventory(Flux<Product> products) {
+        return products
+                .buffer(inventoryBatchSize)
+                .flatMapSequential(this::mapBatchWithInventory, inventoryConcurrency);
+    }
+
+    private Flux<ProductResponse> mapBatchWithInventory(List<Product> batch) {
+        List<String> skuCodes = batch.stream()
+                .map(Product::getSkuCode)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        // In-memory lookup, safe on the event loop
+        Map<String, Boolean> projected = inventoryStockProjection.getStock(skuCodes);
+        List<String> unanswered = skuCodes.stream().filter(skuCode -> !projected.containsKey(skuCode)).toList();
+
+        Mono<Map<String, Boolean>> stockBySku = unanswered.isEmpty()
+                ? Mono.just(projected)
+                : reactiveInventoryClient.checkStock(unanswered)
+                        .map(inventoryResponses -> {
+                            Map<String, Boolean> stock = new HashMap<>(projected);
+                            unanswered.forEach(skuCode -> stock.put(skuCode, false));
+                            for (InventoryResponse inventoryResponse : inventoryResponses) {
+                                stock.put(inventoryResponse.getSkuCode(), inventoryResponse.hasStock());
+                            }
+                            return stock;
+                        })
+                        .onErrorResume(e -> {
+                            log.error("Error checking inventory for {} skuCodes, stock reported as unknown: {}", unanswered.size(), e.getMessage());
+                            return Mono.just(projected);
+                        });
+
+        return stockBySku.flatMapMany(stock -> Flux.fromIterable(batch).map(product -> {
+            ProductResponse response = ProductService.mapToProductResponse(product);
+            // null means inventory-service could not be reached: stock is unknown, not "out of stock"
+            if (product.getSkuCode() != null) {
+                response.setInStock(stock.get(product.getSkuCode()));
+            }
+            return response;
+        }));
+    }
+}
@@ -0,0 +1,337 @@
+package com.esprit.microservice.productservice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Radix trie (single-child chains collapsed into one edge) whose every node caches the top-K entries of its subtree,
+ * so a lookup costs one walk down the prefix and no ranking. An entry is reachable through several keys (e.g. the
+ * start of each word of a product name). Changing an entry updates the cached lists only along the paths of its
+ * keys, and only as far up as it ranks. Not thread-safe: callers guard it.
+ */
+final class SuggestionTrie {
+
+    static final class Entry {
+        final String id;
+        final String text;
+        long score;
+        List<String> keys = List.of();
+
+        private Entry(String id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    // Higher score first, then shorter (closer to the typed prefix), then alphabetical
+    private static final Comparator<Entry> RANKING = Comparator.<Entry>comparingLong(entry -> -entry.score)
+            .thenComparingInt(entry -> entry.text.length())
+            .thenComparing(entry -> entry.text)
+            .thenComparing(entry -> entry.id);
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final char[] NO_FIRSTS = new char[0];
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Edge from the parent; empty for the root
+        private String label;
+        // First character of each child's label, sorted, parallel to children
+        private char[] firsts = NO_FIRSTS;
+        private Node[] children = NO_CHILDREN;
+        // Entries whose key ends exactly here
+        private Entry[] terminals = NO_ENTRIES;
+        // Best topK entries of this subtree, in RANKING order
+        private Entry[] top = NO_ENTRIES;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = Arrays.binarySearch(firsts, first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void putChild(Node child) {
+            char first = child.label.charAt(0);
+            int index = Arrays.binarySearch(firsts, first);
+            if (index >= 0) {
+                children[index] = child;
+                return;
+            }
+            int insertAt = -index - 1;
+            char[] grownFirsts = new char[firsts.length + 1];
+            Node[] grownChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, grownFirsts, 0, insertAt);
+            System.arraycopy(children, 0, grownChildren, 0, insertAt);
+            grownFirsts[insertAt] = first;
+            grownChildren[insertAt] = child;
+            System.arraycopy(firsts, insertAt, grownFirsts, insertAt + 1, firsts.length - insertAt);
+            System.arraycopy(children, insertAt, grownChildren, insertAt + 1, children.length - insertAt);
+            firsts = grownFirsts;
+            children = grownChildren;
+        }
+
+        void removeChild(char first) {
+            int index = Arrays.binarySearch(firsts, first);
+            if (index < 0) {
+                return;
+            }
+            char[] shrunkFirsts = new char[firsts.length - 1];
+            Node[] shrunkChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, shrunkFirsts, 0, index);
+            System.arraycopy(children, 0, shrunkChildren, 0, index);
+            System.arraycopy(firsts, index + 1, shrunkFirsts, index, firsts.length - index - 1);
+            System.arraycopy(children, index + 1, shrunkChildren, index, children.length - index - 1);
+            firsts = shrunkFirsts.length == 0 ? NO_FIRSTS : shrunkFirsts;
+            children = shrunkChildren.length == 0 ? NO_CHILDREN : shrunkChildren;
+        }
+
+        boolean isEmpty() {
+            return children.length == 0 && terminals.length == 0;
+        }
+    }
+
+    private final Node root = new Node("");
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    private final int topK;
+
+    SuggestionTrie(int topK) {
+        this.topK = topK;
+    }
+
+    int size() {
+        return entriesById.size();
+    }
+
+    Entry get(String id) {
+        return entriesById.get(id);
+    }
+
+    // Adds or replaces the entry with this id
+    void put(String id, String text, List<String> keys, long score) {
+        remove(id);
+        Entry entry = new Entry(id, text);
+        entry.score = score;
+        entry.keys = List.copyOf(keys);
+        entriesById.put(id, entry);
+        for (String key : entry.keys) {
+            List<Node> path = path(key, true);
+            Node last = path.get(path.size() - 1);
+            last.terminals = append(last.terminals, entry);
+            promote(path, entry);
+        }
+    }
+
+    void remove(String id) {
+        Entry entry = entriesById.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            List<Node> path = path(key, false);
+            if (path == null) {
+                continue;
+            }
+            Node last = path.get(path.size() - 1);
+            last.terminals = without(last.terminals, entry);
+            demote(path, entry);
+        }
+    }
+
+    void setScore(String id, long score) {
+        Entry entry = entriesById.get(id);
+        if (entry == null || entry.score == score) {
+            return;
+        }
+        boolean raised = score > entry.score;
+        entry.score = score;
+        for (String key : entry.keys) {
+            List<Node> path = path(key, false);
+            if (path == null) {
+                continue;
+            }
+            if (raised) {
+                promote(path, entry);
+            } else {
+                demote(path, entry);
+            }
+        }
+    }
+
+    // Best entries whose keys start with prefix, at most limit (capped at topK)
+    List<Entry> top(String prefix, int limit) {
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            node = node.child(prefix.charAt(position));
+            if (node == null) {
+                return List.of();
+            }
+            String label = node.label;
+            int remaining = prefix.length() - position;
+            // The prefix may end inside this edge: everything below it still matches
+            if (!prefix.regionMatches(position, label, 0, Math.min(remaining, label.length()))) {
+                return List.of();
+            }
+            position += label.length();
+        }
+        Entry[] top = node.top;
+        return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+    }
+
+    // Root first, then every node down to the one where key ends; edges are split so that such a node exists when
+    // create is true. Null if the key is not present and create is false.
+    private List<Node> path(String key, boolean create) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node(key.substring(position));
+                node.putChild(child);
+                path.add(child);
+                return path;
+            }
+            int common = commonPrefixLength(child.label, key, position);
+            if (common < child.label.length()) {
+                if (!create) {
+                    return null;
+                }
+                child = split(node, child, common);
+            }
+            node = child;
+            path.add(node);
+            position += common;
+        }
+        return path;
+    }
+
+    // Inserts a node after the first length chars of child's edge; it covers the same subtree, so it shares the list
+    private static Node split(Node parent, Node child, int length) {
+        Node middle = new Node(child.label.substring(0, length));
+        child.label = child.label.substring(length);
+        middle.putChild(child);
+        middle.top = child.top;
+        parent.putChild(middle);
+        return middle;
+    }
+
+    // An entry that was added or gained score climbs into the cached lists bottom-up along one key's path. A subtree's
+    // top-K is drawn from its children's, so once the entry misses a node's list it misses every ancestor's too.
+    // The root's list is never read (empty prefixes return nothing), so it is not maintained.
+    private void promote(List<Node> path, Entry entry) {
+        for (int depth = path.size() - 1; depth >= 1; depth--) {
+            Node node = path.get(depth);
+            Entry[] top = node.top;
+            int index = indexOf(top, entry);
+            if (index < 0 && top.length == topK && RANKING.compare(entry, top[topK - 1]) >= 0) {
+                return;
+            }
+            Entry[] updated = index >= 0 ? top.clone() : Arrays.copyOf(top, Math.min(topK, top.length + 1));
+            if (index < 0) {
+                updated[updated.length - 1] = entry;
+            }
+            Arrays.sort(updated, RANKING);
+            node.top = updated;
+        }
+    }
+
+    // An entry that was removed or lost score leaves a gap that only a full merge of the node can refill; nodes whose
+    // list never held it are unaffected, and neither are their ancestors. Nodes left empty are pruned and nodes left
+    // with a single child and no terminals absorb it, so edges stay collapsed.
+    private void demote(List<Node> path, Entry entry) {
+        for (int depth = path.size() - 1; depth >= 1; depth--) {
+            Node node = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (node.isEmpty()) {
+                parent.removeChild(node.label.charAt(0));
+                continue;
+            }
+            boolean held = indexOf(node.top, entry) >= 0;
+            if (node.terminals.length == 0 && node.children.length == 1) {
+                Node only = node.children[0];
+                node.label = node.label + only.label;
+                node.firsts = only.firsts;
+                node.children = only.children;
+                node.terminals = only.terminals;
+                node.top = only.top;
+            } else if (held) {
+                node.top = merge(node);
+            }
+            if (!held) {
+                return;
+            }
+        }
+    }
+
+    private Entry[] merge(Node node) {
+        List<Entry> candidates = new ArrayList<>(node.terminals.length + node.children.length * topK);
+        candidates.addAll(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        // One entry can reach a node through several keys (two words starting alike); ties only occur between the
+        // same entry, so duplicates end up adjacent
+        List<Entry> best = new ArrayList<>(topK);
+        for (Entry candidate : candidates) {
+            if (best.size() == topK) {
+                break;
+            }
+            if (best.isEmpty() || best.get(best.size() - 1) != candidate) {
+                best.add(candidate);
+            }
+        }
+        return best.toArray(NO_ENTRIES);
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int indexOf(Entry[] entries, Entry entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] grown = Arrays.copyOf(entries, entries.length + 1);
+        grown[entries.length] = entry;
+        return grown;
+    }
+
+    private static Entry[] without(Entry[] entries, Entry entry) {
+        int index = indexOf(entries, entry);
+        if (index < 0) {
+            return entries;
+        }
+        Entry[] shrunk = new Entry[entries.length - 1];
+        System.arraycopy(entries, 0, shrunk, 0, index);
+        System.arraycopy(entries, index + 1, shrunk, index, entries.length - index - 1);
+        return shrunk.length == 0 ? NO_ENTRIES : shrunk;
+    }
+}
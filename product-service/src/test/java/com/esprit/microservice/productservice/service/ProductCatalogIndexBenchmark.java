@@ -0,0 +1,137 @@
+package com.esprit.microservice.productservice.service;
+
+import com.esprit.microservice.productservice.model.Product;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares ProductCatalogIndex with the Mongo query path on a synthetic catalog (1M products by default).
+ * Needs a running MongoDB and is skipped unless enabled explicitly:
+ * <pre>
+ * mvn test -Dtest=ProductCatalogIndexBenchmark -Dbenchmark=true [-Dbenchmark.mongo.uri=...] [-Dbenchmark.products=1000000]
+ * </pre>
+ * Data goes to a throwaway product_benchmark database that is dropped afterwards.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductCatalogIndexBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 1_000_000);
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+    private static final int LOAD_BATCH = 1000;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private ProductCatalogIndex catalogIndex;
+
+    @BeforeAll
+    void seed() {
+        mongoClient = MongoClients.create(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(mongoClient, "product_benchmark");
+        mongoTemplate.dropCollection(Product.class);
+        mongoTemplate.indexOps(Product.class).ensureIndex(new Index().on("price", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        mongoTemplate.indexOps(Product.class).ensureIndex(new Index().on("stockQuantity", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+
+        Random random = new Random(42);
+        List<Product> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < PRODUCTS; i++) {
+            batch.add(Product.builder()
+                    .name("Product " + i)
+                    .description("Benchmark product number " + i + " with a description of typical length")
+                    .price(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                    .skuCode("SKU-" + i)
+                    .category("category-" + random.nextInt(200))
+                    .imageUrls(List.of("/api/product/files/" + i + ".jpg"))
+                    .stockQuantity(random.nextInt(500))
+                    .active(random.nextInt(10) > 0)
+                    .sellerId("seller-" + random.nextInt(5000))
+                    .build());
+            if (batch.size() == 10_000) {
+                mongoTemplate.insert(batch, Product.class);
+                batch.clear();
+            }
+        }
+        mongoTemplate.insert(batch, Product.class);
+
+        catalogIndex = new ProductCatalogIndex(mongoTemplate, true);
+        long started = System.nanoTime();
+        catalogIndex.rebuild();
+        System.out.printf("Catalog index built over %d products in %d ms%n", catalogIndex.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+    }
+
+    @Test
+    void priceRange() {
+        BigDecimal min = new BigDecimal("100.00");
+        BigDecimal max = new BigDecimal("110.00");
+        compare("price 100-110 (~1%)",
+                ProductCatalogIndex.Filter.priceBetween(min, max),
+                Criteria.where("price").gte(min).lte(max));
+    }
+
+    @Test
+    void lowStock() {
+        compare("stockQuantity < 10 (~2%)",
+                ProductCatalogIndex.Filter.stockBelow(10),
+                Criteria.where("stockQuantity").lt(10));
+    }
+
+    private void compare(String label, ProductCatalogIndex.Filter filter, Criteria criteria) {
+        long mongo = medianMillis(() -> mongoTemplate.find(Query.query(criteria), Product.class).size());
+        long scan = medianMillis(() -> catalogIndex.findIds(filter).size());
+        long indexed = medianMillis(() -> loadByIds(catalogIndex.findIds(filter)).size());
+        System.out.printf("%-28s mongo query %6d ms | index scan %4d ms | index scan + load %6d ms (%d matches)%n",
+                label, mongo, scan, indexed, catalogIndex.findIds(filter).size());
+    }
+
+    // Same loading strategy as ProductService: $in batches of the matching ids
+    private List<Product> loadByIds(List<String> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH) {
+            List<String> chunk = ids.subList(from, Math.min(from + LOAD_BATCH, ids.size()));
+            products.addAll(mongoTemplate.find(Query.query(Criteria.where("_id").in(chunk)), Product.class));
+        }
+        return products;
+    }
+
+    private static long medianMillis(Supplier<Integer> run) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.get();
+        }
+        long[] timings = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long started = System.nanoTime();
+            run.get();
+            timings[i] = (System.nanoTime() - started) / 1_000_000;
+        }
+        Arrays.sort(timings);
+        return timings[MEASURED_RUNS / 2];
+    }
+}
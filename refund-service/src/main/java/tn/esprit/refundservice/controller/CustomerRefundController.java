@@ -1,8 +1,7 @@
 package tn.esprit.refundservice.controller;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.esprit.microservice.jwtclaims.JwtClaims;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -12,7 +11,6 @@ import tn.esprit.refundservice.dto.RefundRequestDto;
 import tn.esprit.refundservice.dto.RefundResponseDto;
 import tn.esprit.refundservice.service.RefundService;
 
-import java.util.Base64;
 import java.util.List;
 
 @RestController
@@ -33,7 +31,7 @@ public class CustomerRefundController {
             HttpServletRequest httpRequest) {
         try {
             // ✅ Extract customer ID from JWT token automatically
-            String customerId = extractCustomerIdFromToken(httpRequest);
+            String customerId = JwtClaims.require(httpRequest).subject();
             request.setCustomerId(customerId);
 
             RefundResponseDto response = refundService.requestRefund(request);
@@ -50,7 +48,7 @@ public class CustomerRefundController {
     @GetMapping
     public ResponseEntity<List<RefundResponseDto>> getMyRefunds(HttpServletRequest request) {
         try {
-            String customerId = extractCustomerIdFromToken(request);
+            String customerId = JwtClaims.require(request).subject();
             List<RefundResponseDto> refunds = refundService.getMyRefunds(customerId);
             return ResponseEntity.ok(refunds);
         } catch (RuntimeException e) {
@@ -67,7 +65,7 @@ public class CustomerRefundController {
             @PathVariable Long refundId,
             HttpServletRequest request) {
         try {
-            String customerId = extractCustomerIdFromToken(request);
+            String customerId = JwtClaims.require(request).subject();
             RefundResponseDto refund = refundService.getRefundDetails(refundId, customerId);
             return ResponseEntity.ok(refund);
         } catch (RuntimeException e) {
@@ -83,34 +81,4 @@ public class CustomerRefundController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Customer Refund Service is running!");
     }
-
-    // ✅ JWT Token extraction method
-    private String extractCustomerIdFromToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new RuntimeException("Authorization header missing or invalid");
-        }
-        String token = authHeader.substring(7);
-        return extractSubFromJWT(token);
-    }
-
-    private String extractSubFromJWT(String token) {
-        try {
-            String[] chunks = token.split("\\.");
-            if (chunks.length != 3) {
-                throw new RuntimeException("Invalid JWT token format");
-            }
-            Base64.Decoder decoder = Base64.getUrlDecoder();
-            String payload = new String(decoder.decode(chunks[1]));
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(payload);
-            String sub = jsonNode.get("sub").asText();
-            if (sub == null || sub.isEmpty()) {
-                throw new RuntimeException("User ID (sub) not found in token");
-            }
-            return sub;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract user ID from token: " + e.getMessage());
-        }
-    }
 }
\ No newline at end of file
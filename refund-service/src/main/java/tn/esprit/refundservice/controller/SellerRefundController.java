@@ -1,8 +1,7 @@
 package tn.esprit.refundservice.controller;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.esprit.microservice.jwtclaims.JwtClaims;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -11,7 +10,6 @@ import tn.esprit.refundservice.dto.RefundResponseDto;
 import tn.esprit.refundservice.model.RefundStatus;
 import tn.esprit.refundservice.service.RefundService;
 
-import java.util.Base64;
 import java.util.List;
 
 @RestController
@@ -31,7 +29,7 @@ public class SellerRefundController {
             @PathVariable Long refundId,
             HttpServletRequest request) {
         try {
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
             RefundResponseDto response = refundService.approveRefund(refundId, sellerId);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -49,7 +47,7 @@ public class SellerRefundController {
             @RequestParam String rejectionReason,
             HttpServletRequest request) {
         try {
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
             RefundResponseDto response = refundService.rejectRefund(refundId, sellerId, rejectionReason);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -64,7 +62,7 @@ public class SellerRefundController {
     @GetMapping("/pending")
     public ResponseEntity<List<RefundResponseDto>> getPendingRefunds(HttpServletRequest request) {
         try {
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
             List<RefundResponseDto> pendingRefunds = refundService.getPendingRefunds(sellerId);
             return ResponseEntity.ok(pendingRefunds);
         } catch (RuntimeException e) {
@@ -81,7 +79,7 @@ public class SellerRefundController {
             @PathVariable String orderId,
             HttpServletRequest request) {
         try {
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
             List<RefundResponseDto> orderRefunds = refundService.getRefundsByOrder(orderId, sellerId);
             return ResponseEntity.ok(orderRefunds);
         } catch (RuntimeException e) {
@@ -99,7 +97,7 @@ public class SellerRefundController {
             @RequestParam RefundStatus status,
             HttpServletRequest request) {
         try {
-            String sellerId = extractSellerIdFromToken(request);
+            String sellerId = JwtClaims.require(request).subject();
             RefundResponseDto response = refundService.updateRefundStatus(refundId, status);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -115,34 +113,4 @@ public class SellerRefundController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Seller Refund Service is running!");
     }
-
-    // ✅ JWT Token extraction method
-    private String extractSellerIdFromToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new RuntimeException("Authorization header missing or invalid");
-        }
-        String token = authHeader.substring(7);
-        return extractSubFromJWT(token);
-    }
-
-    private String extractSubFromJWT(String token) {
-        try {
-            String[] chunks = token.split("\\.");
-            if (chunks.length != 3) {
-                throw new RuntimeException("Invalid JWT token format");
-            }
-            Base64.Decoder decoder = Base64.getUrlDecoder();
-            String payload = new String(decoder.decode(chunks[1]));
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(payload);
-            String sub = jsonNode.get("sub").asText();
-            if (sub == null || sub.isEmpty()) {
-                throw new RuntimeException("User ID (sub) not found in token");
-            }
-            return sub;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract user ID from token: " + e.getMessage());
-        }
-    }
 }
\ No newline at end of file